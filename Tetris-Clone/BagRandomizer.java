@@ -0,0 +1,44 @@
+// Deals every brick type the same number of times per bag, in shuffled order
+// One copy per bag is the usual 7-bag, two copies give the looser 14-bag
+
+public class BagRandomizer extends TetrisRandomizer {
+    private final int copies;
+    private final int[] bag;
+    private int position;
+
+    public BagRandomizer(long seed, int copies) {
+        super(seed);
+        this.copies = copies;
+        this.bag = new int[TetrisShapes.AMT_TYPES * copies];
+        restart();
+    }
+
+    protected int pick() {
+        if (position == bag.length) {
+            shuffle();
+            position = 0;
+        }
+        return bag[position++];
+    }
+
+    // Fisher-Yates shuffle in place, the bag always holds the same types
+    private void shuffle() {
+        for (int index = bag.length - 1; index > 0; index--) {
+            int other = random.nextInt(index + 1);
+            int type = bag[index];
+            bag[index] = bag[other];
+            bag[other] = type;
+        }
+    }
+
+    protected void restart() {
+        for (int index = 0; index < bag.length; index++) {
+            bag[index] = index % TetrisShapes.AMT_TYPES;
+        }
+        position = bag.length;
+    }
+
+    public String getName() {
+        return (TetrisShapes.AMT_TYPES * copies) + "bag";
+    }
+}
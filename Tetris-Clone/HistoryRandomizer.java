@@ -0,0 +1,44 @@
+// Rerolls a few times when the picked type is one of the last few dealt, so repeats are rare but possible
+// The history starts out full of ess and zee bricks, which keeps them from being dealt first
+
+public class HistoryRandomizer extends TetrisRandomizer {
+    private final int amtRolls = 4;
+    private final int[] startHistory = {TetrisShapes.ZEE, TetrisShapes.ESS, TetrisShapes.ZEE, TetrisShapes.ESS};
+
+    // Ring of the last types dealt, next points at the oldest one
+    private final int[] history = new int[startHistory.length];
+    private int next;
+
+    public HistoryRandomizer(long seed) {
+        super(seed);
+        restart();
+    }
+
+    protected int pick() {
+        int type = random.nextInt(TetrisShapes.AMT_TYPES);
+        for (int roll = 1; roll < amtRolls && inHistory(type); roll++) {
+            type = random.nextInt(TetrisShapes.AMT_TYPES);
+        }
+        history[next] = type;
+        next = (next + 1) % history.length;
+        return type;
+    }
+
+    private boolean inHistory(int type) {
+        for (int dealt : history) {
+            if (dealt == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void restart() {
+        System.arraycopy(startHistory, 0, history, 0, history.length);
+        next = 0;
+    }
+
+    public String getName() {
+        return "history";
+    }
+}
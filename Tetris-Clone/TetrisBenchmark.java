@@ -0,0 +1,289 @@
+// Micro-benchmarks for the engine's hot paths, run on boards filled to a few realistic heights
+// Every measured call gets a game freshly restored from the same snapshot, so calls that change the game
+// (gravity, rotations, line clears) always start from the same state and the restoring is never timed
+// Results can be written to a file and compared with an earlier run to catch regressions
+//
+// Usage: java TetrisBenchmark [iterations] [filter] [output] [baseline]
+//   filter only runs the benchmarks whose name contains it, "all" runs every benchmark
+//   output is the file the results are written to, "-" to not write them
+//   baseline is a results file from an earlier run, a benchmark more than 10% slower than it makes the exit code 1
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class TetrisBenchmark {
+    private final int rows = 20;
+    private final int cols = 10;
+    private final long seed = 1L;
+
+    // Share of the cells filled in the rows of a fill state, every row keeps at least one hole
+    private final int fillPercent = 70;
+
+    // Calls timed together, one nanoTime() per batch keeps the timer's own cost out of the numbers
+    private final int batchSize = 256;
+
+    private final int regressionPercent = 10;
+
+    // One call of the benchmarked code on a game restored for it alone
+    private interface Operation {
+        int run(TetrisGame game) throws IOException;
+    }
+
+    // How a fill state's snapshot is prepared after the rows are filled
+    private interface Setup {
+        void prepare(TetrisGame game);
+    }
+
+    private final int iterations;
+    private final String filter;
+    private final Map<String, Double> results = new LinkedHashMap<String, Double>();
+
+    // Keeps the JIT from removing the benchmarked calls
+    private int sink;
+
+    public TetrisBenchmark(int iterations, String filter) {
+        this.iterations = iterations;
+        this.filter = filter;
+    }
+
+    public void runAll() throws IOException {
+        Path directory = Files.createTempDirectory("tetris-benchmark");
+        Path saveFile = directory.resolve(TetrisSaveFile.SAVE_FILE);
+        TetrisBrick phantom = new TetrisBrick(0, 0, 0);
+
+        int[] fillStates = {0, 6, 14};
+        for (int filledRows : fillStates) {
+            String fill = "fill " + filledRows + ": ";
+            ByteBuffer spawned = snapshot(filledRows, game -> {
+            });
+            ByteBuffer landing = snapshot(filledRows, game -> {
+                TetrisBrick brick = game.getCurrentPlace();
+                brick.moveDown(game.getGhostRow() - brick.getRow());
+            });
+            ByteBuffer lines = snapshot(filledRows, game -> {
+                for (int row = rows - 5; row < rows - 1; row++) {
+                    for (int col = 0; col < cols; col++) {
+                        game.updateBoard(row, col, TetrisShapes.getBoardColor(col % TetrisShapes.AMT_TYPES));
+                    }
+                }
+            });
+
+            measure(fill + "validateHorizontal", spawned, game -> game.validateHorizontal(-1) ? 1 : 0);
+            measure(fill + "validateRotate", spawned, game -> {
+                game.validateRotate();
+                return game.getCurrentPlace().getOrientation();
+            });
+            measure(fill + "validateMove fall", spawned, game -> {
+                game.validateMove();
+                return game.getCurrentPlace().getRow();
+            });
+            measure(fill + "validateMove lock", landing, game -> {
+                game.validateMove();
+                return game.getPiecesPlaced();
+            });
+            measure(fill + "movePhantom", spawned, game -> {
+                game.movePhantom(phantom);
+                return phantom.getRow();
+            });
+            measure(fill + "checkForLine", lines, game -> {
+                game.checkForLine(rows - 5, rows - 2);
+                return game.getLinesCleared();
+            });
+            measure(fill + "pickBrick", spawned, TetrisGame::pickBrick);
+            measure(fill + "encode", spawned, game -> TetrisSaveFile.encode(game).remaining());
+            measure(fill + "decode", spawned, game -> {
+                TetrisSaveFile.readRecord(game, spawned.duplicate());
+                return game.getScore();
+            });
+            // The file round trip forces the save to disk, so it runs in small batches
+            measure(fill + "saveGame", spawned, 1, game -> {
+                TetrisSaveFile.save(game, saveFile);
+                return game.getScore();
+            });
+            measure(fill + "loadGame", spawned, 1, game -> {
+                TetrisSaveFile.load(game, saveFile);
+                return game.getScore();
+            });
+            measurePaint(fill, spawned);
+        }
+        Files.deleteIfExists(saveFile);
+        Files.deleteIfExists(directory);
+    }
+
+    // Snapshot of a started game with the bottom rows filled, every row left with at least one hole
+    private ByteBuffer snapshot(int filledRows, Setup setup) {
+        TetrisGame game = new TetrisGame(rows, cols, seed);
+        game.startGame();
+        SplittableRandom random = new SplittableRandom(seed + filledRows);
+        for (int row = rows - 1 - filledRows; row < rows - 1; row++) {
+            int hole = random.nextInt(cols);
+            for (int col = 0; col < cols; col++) {
+                if (col != hole && random.nextInt(100) < fillPercent) {
+                    game.updateBoard(row, col, TetrisShapes.getBoardColor(random.nextInt(TetrisShapes.AMT_TYPES)));
+                }
+            }
+        }
+        setup.prepare(game);
+        return TetrisSaveFile.encode(game);
+    }
+
+    private void measure(String name, ByteBuffer snapshot, Operation operation) throws IOException {
+        measure(name, snapshot, batchSize, operation);
+    }
+
+    // Runs the operation once per game in each batch, after as many rounds again to warm up the JIT
+    private void measure(String name, ByteBuffer snapshot, int batch, Operation operation) throws IOException {
+        if (!selected(name)) {
+            return;
+        }
+        TetrisGame[] games = new TetrisGame[batch];
+        for (int index = 0; index < batch; index++) {
+            games[index] = new TetrisGame(rows, cols, seed);
+        }
+        int rounds = batch == 1 ? Math.max(1, iterations / 8) : iterations;
+        double[] nanosPerCall = new double[rounds];
+        for (int round = -rounds; round < rounds; round++) {
+            for (TetrisGame game : games) {
+                TetrisSaveFile.readRecord(game, snapshot.duplicate());
+            }
+            long start = System.nanoTime();
+            for (TetrisGame game : games) {
+                sink += operation.run(game);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= 0) {
+                nanosPerCall[round] = (double) elapsed / batch;
+            }
+        }
+        report(name, nanosPerCall);
+    }
+
+    // Full frames drawn into an offscreen image, once with only the brick moving and once with the board changing
+    private void measurePaint(String fill, ByteBuffer snapshot) throws IOException {
+        String moved = fill + "paintComponent brick moved";
+        String changed = fill + "paintComponent board changed";
+        if (!selected(moved) && !selected(changed)) {
+            return;
+        }
+        TetrisGame game = new TetrisGame(rows, cols, seed);
+        TetrisSaveFile.readRecord(game, snapshot.duplicate());
+
+        // A replay that never ends keeps the display from recording the game or asking for a name
+        TetrisReplay playback = new TetrisReplay(rows, cols, game.getRandomizer().getName(), seed);
+        playback.setEndTick(Integer.MAX_VALUE);
+        TetrisWindow.watchedReplay = playback;
+        TetrisDisplay display = new TetrisDisplay(game);
+        display.loop.stop();
+        display.setSize(960, 540);
+        BufferedImage image = new BufferedImage(960, 540, BufferedImage.TYPE_INT_RGB);
+
+        if (selected(moved)) {
+            measureFrames(moved, game, display, image, () -> {
+                game.moveHorizontal(game.getCurrentPlace().getCol() % 2 == 0 ? -1 : 1);
+            });
+        }
+        if (selected(changed)) {
+            int row = rows - 2;
+            measureFrames(changed, game, display, image, () -> {
+                game.updateBoard(row, 0, game.getBoard().getColor(row, 0) == 0 ? TetrisShapes.getBoardColor(0) : 0);
+            });
+        }
+    }
+
+    private void measureFrames(String name, TetrisGame game, TetrisDisplay display, BufferedImage image, Runnable change) {
+        int frames = 16;
+        double[] nanosPerFrame = new double[iterations];
+        for (int round = -iterations; round < iterations; round++) {
+            long elapsed = 0;
+            for (int frame = 0; frame < frames; frame++) {
+                // The display's loop has been told to stop, its thread may still be finishing a tick
+                synchronized (game) {
+                    change.run();
+                }
+                long start = System.nanoTime();
+                Graphics graphics = image.createGraphics();
+                display.paintComponent(graphics);
+                graphics.dispose();
+                elapsed += System.nanoTime() - start;
+            }
+            if (round >= 0) {
+                nanosPerFrame[round] = (double) elapsed / frames;
+            }
+        }
+        sink += image.getRGB(0, 0);
+        report(name, nanosPerFrame);
+    }
+
+    private boolean selected(String name) {
+        return filter.equals("all") || name.contains(filter);
+    }
+
+    private void report(String name, double[] nanos) {
+        double[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double median = sorted[sorted.length / 2];
+        results.put(name, median);
+        System.out.printf("%-40s median %12.1f ns/op, p10 %12.1f, p90 %12.1f%n", name, median,
+                sorted[sorted.length / 10], sorted[Math.min(sorted.length - 1, sorted.length * 9 / 10)]);
+    }
+
+    // One "name,median ns/op" line per benchmark
+    public void writeResults(Path path) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        for (Map.Entry<String, Double> result : results.entrySet()) {
+            lines.add(result.getKey() + "," + result.getValue());
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    // Prints every benchmark that got slower than the baseline allows, returns how many did
+    public int compare(Path baseline) throws IOException {
+        int regressions = 0;
+        for (String line : Files.readAllLines(baseline, StandardCharsets.UTF_8)) {
+            int comma = line.lastIndexOf(',');
+            if (comma <= 0) {
+                continue;
+            }
+            String name = line.substring(0, comma);
+            Double current = results.get(name);
+            if (current == null) {
+                continue;
+            }
+            double before = Double.parseDouble(line.substring(comma + 1));
+            double change = (current - before) * 100 / before;
+            if (change > regressionPercent) {
+                regressions++;
+                System.out.printf("REGRESSION %-40s %12.1f -> %12.1f ns/op (%+.1f%%)%n", name, before, current, change);
+            }
+        }
+        return regressions;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        String filter = args.length > 1 ? args[1] : "all";
+        String output = args.length > 2 ? args[2] : "-";
+        String baseline = args.length > 3 ? args[3] : null;
+
+        TetrisBenchmark benchmark = new TetrisBenchmark(iterations, filter);
+        benchmark.runAll();
+        if (!output.equals("-")) {
+            benchmark.writeResults(Paths.get(output));
+        }
+        int regressions = baseline == null ? 0 : benchmark.compare(Paths.get(baseline));
+        System.out.println("(sink " + benchmark.sink + ")");
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,249 @@
+// Bitboard representation of the stationary bricks on the board
+// Each row is stored as one int where bit N is set when column N is occupied
+// Colors are kept in a separate byte plane so collision tests never have to touch them
+// The highest occupied row of every column is tracked so drops can be computed without walking the brick down
+//
+// The rows sit inside a permanent frame: wall bits on both sides of every row word, open rows above the board
+// and solid rows below it. A brick is only ever tested next to a spot it fits in, so with a frame as wide as the
+// largest brick every test lands on a real row word and the walls and floor reject moves like any stationary brick
+//
+// A Zobrist hash of the occupied cells is kept up to date on every change, so searches can recognise a board
+// they have seen before without comparing it cell by cell
+
+import java.util.Arrays;
+
+public class TetrisBoard {
+    private final int rows;
+    private final int cols;
+
+    // Width of the frame on every side, in cells
+    public static final int PADDING = 4;
+
+    // Row word of an empty row (only the walls set) and of a full one (every bit set)
+    private final int wallBits;
+    private static final int fullRow = -1;
+
+    // Board row N is rowBits[N + PADDING], board column N is bit N + PADDING
+    private final int[] rowBits;
+    private final byte[] colors;
+
+    // Highest occupied row per column, rows when the column is empty
+    private final int[] columnTops;
+    private boolean topsValid = true;
+
+    // Bumped on every change so renderers can tell when their cached copy is stale
+    private int version = 0;
+
+    // XOR of the cellKey() of every occupied cell, colors are not part of it
+    private long hash = 0;
+
+    public TetrisBoard(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.wallBits = emptyRow(cols);
+        this.rowBits = frame(rows, cols);
+        this.colors = new byte[rows * cols];
+        this.columnTops = new int[cols];
+        Arrays.fill(columnTops, rows);
+    }
+
+    // Row word of an empty row in the frame of a board cols wide, only the wall bits set
+    public static int emptyRow(int cols) {
+        return ~(((1 << cols) - 1) << PADDING);
+    }
+
+    // Row words of an empty board inside its frame, open rows above the board and solid rows below it
+    // Anything else that tests bricks against a playfield, like TetrisPlacements, keeps its rows in one of these
+    public static int[] frame(int rows, int cols) {
+        if (cols > 32 - 2 * PADDING) {
+            throw new IllegalArgumentException("A board can be at most " + (32 - 2 * PADDING) + " columns wide");
+        }
+        int[] words = new int[PADDING + rows + PADDING];
+        Arrays.fill(words, 0, PADDING + rows, emptyRow(cols));
+        Arrays.fill(words, PADDING + rows, words.length, fullRow);
+        return words;
+    }
+
+    // Tests a whole brick placed with its center cell at (row, col) against row words laid out by frame()
+    // One shift-and-AND per brick row, the frame takes care of the walls, the floor and the open rows above
+    public static boolean fits(int[] words, int type, int rotation, int row, int col) {
+        int shift = col + TetrisShapes.getMinX(type, rotation) + PADDING;
+        int top = row + TetrisShapes.getMinY(type, rotation) + PADDING;
+        int height = TetrisShapes.getHeight(type, rotation);
+        for (int boxRow = 0; boxRow < height; boxRow++) {
+            if ((words[top + boxRow] & (TetrisShapes.getRowMask(type, rotation, boxRow) << shift)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Tests a whole brick placed with its center cell at (row, col) on this board
+    public boolean fits(int type, int rotation, int row, int col) {
+        return fits(rowBits, type, rotation, row, col);
+    }
+
+    // Tests whether the brick at (row, col) lies within the frame, only such a brick can be asked about with fits()
+    // The brick may stick out above the board as far as the open rows of the frame reach
+    public boolean contains(int type, int rotation, int row, int col) {
+        int left = col + TetrisShapes.getMinX(type, rotation);
+        int top = row + TetrisShapes.getMinY(type, rotation);
+        return left >= 0 && left + TetrisShapes.getWidth(type, rotation) <= cols
+                && top >= -PADDING && top + TetrisShapes.getHeight(type, rotation) <= rows;
+    }
+
+    // Returns the row the brick's center comes to rest on when dropped straight down from (row, col)
+    public int dropRow(int type, int rotation, int row, int col) {
+        int left = col + TetrisShapes.getMinX(type, rotation);
+        int width = TetrisShapes.getWidth(type, rotation);
+        int landing = Integer.MAX_VALUE;
+        for (int boxCol = 0; boxCol < width; boxCol++) {
+            landing = Math.min(landing, getColumnTop(left + boxCol) - 1 - TetrisShapes.getBottom(type, rotation, boxCol));
+        }
+        if (row <= landing) {
+            return landing;
+        }
+        // The brick is tucked under an overhang, so the skyline says nothing about what is below it
+        while (fits(type, rotation, row + 1, col)) {
+            row++;
+        }
+        return row;
+    }
+
+    public int getColumnTop(int col) {
+        if (!topsValid) {
+            for (int column = 0; column < cols; column++) {
+                columnTops[column] = scanTop(column, 0);
+            }
+            topsValid = true;
+        }
+        return columnTops[col];
+    }
+
+    // The floor stops the scan, so an empty column ends on rows
+    private int scanTop(int col, int fromRow) {
+        int bit = 1 << (col + PADDING);
+        int row = fromRow;
+        while ((rowBits[row + PADDING] & bit) == 0) {
+            row++;
+        }
+        return row;
+    }
+
+    public int getColor(int row, int col) {
+        return colors[row * cols + col];
+    }
+
+    // Sets or clears a cell, a color of 0 means empty
+    public void set(int row, int col, int color) {
+        colors[row * cols + col] = (byte) color;
+        version++;
+        if (((rowBits[row + PADDING] & (1 << (col + PADDING))) != 0) != (color != 0)) {
+            hash ^= cellKey(row, col);
+        }
+        if (color == 0) {
+            rowBits[row + PADDING] &= ~(1 << (col + PADDING));
+            if (topsValid && columnTops[col] == row) {
+                columnTops[col] = scanTop(col, row + 1);
+            }
+        } else {
+            rowBits[row + PADDING] |= 1 << (col + PADDING);
+            if (topsValid && row < columnTops[col]) {
+                columnTops[col] = row;
+            }
+        }
+    }
+
+    // Occupied cells of a row with the frame taken off, bit N is column N
+    public int getRowBits(int row) {
+        return (rowBits[row + PADDING] & ~wallBits) >>> PADDING;
+    }
+
+    public boolean isRowEmpty(int row) {
+        return rowBits[row + PADDING] == wallBits;
+    }
+
+    public boolean isRowFull(int row) {
+        return rowBits[row + PADDING] == fullRow;
+    }
+
+    // Removes the full rows between fromRow and toRow (inclusive) and drops everything above them
+    // Only the given rows are inspected, the rows above are moved as one block
+    public int clearLines(int fromRow, int toRow) {
+        fromRow = Math.max(fromRow, 0);
+        toRow = Math.min(toRow, rows - 1);
+        int cleared = 0;
+        for (int row = toRow; row >= fromRow; row--) {
+            if (isRowFull(row)) {
+                cleared++;
+            } else if (cleared > 0) {
+                copyRow(row, row + cleared);
+            }
+        }
+        if (cleared == 0) {
+            return 0;
+        }
+        // Every row above the last one copied changes, their keys are taken out before the move and put back after
+        hash ^= hashRows(0, fromRow + cleared);
+        System.arraycopy(rowBits, PADDING, rowBits, PADDING + cleared, fromRow);
+        System.arraycopy(colors, 0, colors, cleared * cols, fromRow * cols);
+        Arrays.fill(rowBits, PADDING, PADDING + cleared, wallBits);
+        Arrays.fill(colors, 0, cleared * cols, (byte) 0);
+        hash ^= hashRows(0, fromRow + cleared);
+        topsValid = false;
+        version++;
+        return cleared;
+    }
+
+    // Copies one row (occupancy and colors) over another
+    public void copyRow(int fromRow, int toRow) {
+        hash ^= rowHash(toRow, getRowBits(toRow)) ^ rowHash(toRow, getRowBits(fromRow));
+        rowBits[toRow + PADDING] = rowBits[fromRow + PADDING];
+        topsValid = false;
+        version++;
+        System.arraycopy(colors, fromRow * cols, colors, toRow * cols, cols);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    // Zobrist hash of the occupied cells, equal boards always have equal hashes
+    public long getHash() {
+        return hash;
+    }
+
+    // Random key of one cell, derived from its position so every board of every size agrees on it
+    public static long cellKey(int row, int col) {
+        long key = (row * 64L + col + 1) * 0x9e3779b97f4a7c15L;
+        key = (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+        key = (key ^ (key >>> 27)) * 0x94d049bb133111ebL;
+        return key ^ (key >>> 31);
+    }
+
+    // XOR of the keys of the cells set in a row word, bit N is column N
+    public static long rowHash(int row, int bits) {
+        long rowHash = 0;
+        for (; bits != 0; bits &= bits - 1) {
+            rowHash ^= cellKey(row, Integer.numberOfTrailingZeros(bits));
+        }
+        return rowHash;
+    }
+
+    // XOR of the row hashes of the rows from fromRow up to, not including, toRow
+    private long hashRows(int fromRow, int toRow) {
+        long rowsHash = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            rowsHash ^= rowHash(row, getRowBits(row));
+        }
+        return rowsHash;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+}
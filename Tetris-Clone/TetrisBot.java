@@ -0,0 +1,86 @@
+// Plays a game on its own, used to soak test the engine and as a demo when nobody is playing
+// For every new brick a TetrisPlanner picks where it should go, on its own or looking ahead through the previewed
+// bricks, and the bot plays the placement through the game's own inputs, one input per call to nextInput()
+//
+// The planner gives the shortest inputs to the placement, which may have the brick fall a few rows before it
+// slides or turns under an overhang. The bot soft drops until the brick is on the row a step is planned for,
+// and if gravity took the brick lower than planned it plans again from where the brick is
+
+import java.util.concurrent.ForkJoinPool;
+
+public class TetrisBot {
+    private final TetrisGame game;
+    private final TetrisPlanner planner;
+
+    // Inputs of the chosen placement, handed out one at a time, and the row the brick should be on for each
+    private final TetrisInput[] plan;
+    private final int[] planRows;
+    private int planLength;
+    private int planPosition;
+    private int plannedPieces = -1;
+
+    // Places each brick by itself, a plan never takes long enough to matter
+    public TetrisBot(TetrisGame game) {
+        this(game, 0, ForkJoinPool.commonPool());
+    }
+
+    // Looks ahead through the previewed bricks for at most the given time per brick, searching on the pool
+    public TetrisBot(TetrisGame game, long budgetNanos, ForkJoinPool pool) {
+        this.game = game;
+        // The game's border row is not part of the playfield
+        this.planner = new TetrisPlanner(game.fetchRows() - 1, game.fetchCols(), 8, budgetNanos, pool);
+        this.plan = new TetrisInput[planner.getMaxPathLength()];
+        this.planRows = new int[plan.length];
+    }
+
+    // Next input of the plan for the active brick, a new plan is made whenever a new brick has spawned
+    public TetrisInput nextInput() {
+        if (game.isGameOver()) {
+            return TetrisInput.NONE;
+        }
+        if (game.getPiecesPlaced() != plannedPieces) {
+            plannedPieces = game.getPiecesPlaced();
+            plan();
+        }
+        int row = game.getCurrentPlace().getRow();
+        skipFalls(row);
+        if (planPosition < planLength && row > planRows[planPosition]) {
+            plan();
+            skipFalls(row);
+        }
+        if (planPosition >= planLength) {
+            return TetrisInput.NONE;
+        }
+        TetrisInput input = plan[planPosition];
+        if (input != TetrisInput.SOFT_DROP) {
+            planPosition++;
+        }
+        return input;
+    }
+
+    // A planned fall is over once the brick has reached the row below
+    private void skipFalls(int row) {
+        while (planPosition < planLength && plan[planPosition] == TetrisInput.SOFT_DROP
+                && row > planRows[planPosition]) {
+            planPosition++;
+        }
+    }
+
+    // Takes the planner's path to its placement, noting the row the brick is on before each input
+    private void plan() {
+        planner.plan(game);
+        planLength = planner.getPath(plan);
+        planPosition = 0;
+        int row = game.getCurrentPlace().getRow();
+        for (int step = 0; step < planLength; step++) {
+            planRows[step] = row;
+            if (plan[step] == TetrisInput.SOFT_DROP) {
+                row++;
+            }
+        }
+    }
+
+    public TetrisPlanner getPlanner() {
+        return planner;
+    }
+}
@@ -1,93 +1,79 @@
 // Author: Matthew Foreman
 // Last modified: 12-14-2020
 //
-// Abstract class
-// Contains all the attributes and methods that all of the different bricks have in common
-// Inherited by the seven other subclasses
-
-import java.awt.*;
-
-public class TetrisBrick implements Cloneable{
-    private int[][] position = new int[4][2];
-
-    public int xCord = 0;
-    public int yCord = 0;
-    public int size = 0;
-
-    public int maxRotate = 3;
+// The brick the player is moving, reduced to a type, a position and a rotation
+// Everything a type has in common (shape, rotations, color) lives in the shared TetrisShapes tables,
+// so one instance is reused for every spawn instead of allocating a new brick each time
+//
+// Positions are board cells, col counts from the left wall and row from the top of the board (negative above it)
+// The rotation is only an index into TetrisShapes, the display does all the pixel math
 
-    private int adjustX = 358;
-    private int adjustY = 8;
-    private int resetStart = 52;
+public class TetrisBrick {
+    private int type;
+    private int col;
+    private int row;
+    private int orientation;
 
-    private Color color = Color.blue;
-    private int orientation = 0;
-    private int numSegments = 4;
+    public TetrisBrick(int type, int col, int row) {
+        spawn(type, col, row);
+    }
 
-    public TetrisBrick(int xCord, int yCord, int size) {
-        this.xCord = xCord;
-        this.yCord = yCord;
-        this.size = size;
-        this.color = color;
-        this.orientation = orientation;
-        this.numSegments = numSegments;
+    // Turns this brick into a new brick of the given type in its spawn orientation
+    public void spawn(int type, int col, int row) {
+        place(type, col, row, 0);
     }
 
-    public int[] initPosition() {
-        int[] xAndY = {this.xCord, this.yCord};
-        return xAndY;
+    public void place(int type, int col, int row, int orientation) {
+        this.type = type;
+        this.col = col;
+        this.row = row;
+        this.orientation = orientation;
     }
 
     public void rotate() {
-        orientation += 1;
+        orientation = TetrisShapes.nextRotation(orientation);
     }
 
     public void moveLeft() {
-            xCord -= size;
+        col--;
     }
 
     public void moveRight() {
-        xCord += size;
+        col++;
     }
 
     public void moveDown() {
-        yCord += size;
+        row++;
     }
 
-    public void showFullBrick(Graphics g) {
-        g.setColor(Color.red);
-        g.fillRect(xCord, yCord, size, size);
+    public void moveDown(int rows) {
+        row += rows;
     }
 
-    public void showPhantom(Graphics g) {
-        g.setColor(Color.red);
-        g.drawRect(xCord, yCord, size, size);
+    // Copies the given brick's type and rotation, placing this brick in its column the given amount of rows below it
+    public void alignWith(TetrisBrick brick, int rowsBelow) {
+        type = brick.type;
+        orientation = brick.orientation;
+        col = brick.col;
+        row = brick.row + rowsBelow;
     }
 
-    public void showQueue(Graphics g, int xCord, int yCord) {
-        g.setColor(Color.red);
-        g.fillRect(xCord, yCord, size, size);
+    // Board column of the brick's center cell
+    public int getCol() {
+        return col;
     }
 
-    protected TetrisBrick clone() throws CloneNotSupportedException {
-        return (TetrisBrick) super.clone();
+    // Board row of the brick's center cell
+    public int getRow() {
+        return row;
     }
 
-    public void reset() {
-        yCord = resetStart;
-    }
-
-    // Add setters and getters
-
-    public int getyCord() {
-        return (this.yCord - adjustY) / size;
-    }
-
-    public int getxCord() {
-        return ((this.xCord - adjustX) / size ) - 1;
+    public int getOrientation() {
+        return orientation;
     }
 
-    public int getOrientation() {
-        return this.orientation;
+    // Index of this brick in TetrisShapes
+    public int getType() {
+        return type;
     }
 }
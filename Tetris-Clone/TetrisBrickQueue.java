@@ -0,0 +1,62 @@
+// Ring buffer of upcoming brick types, stored as plain ints so dealing a brick allocates nothing
+// Any entry can be peeked in constant time, which is what the preview and look-ahead code does every frame
+// Capacity is a power of two and only grows if someone looks further ahead than it holds
+
+public class TetrisBrickQueue {
+    private int[] types;
+    private int mask;
+    private int head;
+    private int size;
+
+    public TetrisBrickQueue(int capacity) {
+        types = new int[Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1];
+        mask = types.length - 1;
+    }
+
+    public void add(int type) {
+        if (size == types.length) {
+            grow();
+        }
+        types[(head + size) & mask] = type;
+        size++;
+    }
+
+    // Removes and returns the type at the front of the queue
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Brick queue is empty");
+        }
+        int type = types[head];
+        head = (head + 1) & mask;
+        size--;
+        return type;
+    }
+
+    // Type the given amount of places behind the front, 0 is the next brick to be polled
+    public int peek(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size + " queued bricks");
+        }
+        return types[(head + index) & mask];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    // Doubles the capacity, unrolling the ring so the front is at index 0 again
+    private void grow() {
+        int[] grown = new int[types.length * 2];
+        for (int index = 0; index < size; index++) {
+            grown[index] = types[(head + index) & mask];
+        }
+        types = grown;
+        mask = grown.length - 1;
+        head = 0;
+    }
+}
@@ -15,9 +15,13 @@ import java.awt.event.*;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashSet;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 public class TetrisDisplay extends JPanel implements ActionListener, KeyListener {
     public int cellSize = 22;
@@ -34,26 +38,80 @@ public class TetrisDisplay extends JPanel implements ActionListener, KeyListener
     private int numXPos = 84;
     private int numYPos = 290;
 
-    private int fullCircle = 360;
     private int fourthCircle = 90;
-    private int fallSpeed = 32;
-    private int speedRatio = 8;
-    private int inputSpeed = 1;
-    private int speedCounter;
-
-    private int level = 1;
-    private int arcLength = 0;
 
     private Image backgroundImage;
 
-    // Stores user's key presses
-    private final HashSet<Integer> pressed = new HashSet<Integer>();
+    // Background plus checkerboard, composed once
+    private BufferedImage staticLayer;
+    // Stationary bricks, only redrawn when the board changes
+    private BufferedImage boardLayer;
+    private int boardLayerVersion = -1;
+
+    // Screen areas that only need repainting when what they show changes
+    private final Rectangle scoreArea = new Rectangle(35, 30, 250, 90);
+    private final Rectangle levelArea = new Rectangle(levelXPos, levelYPos, levelDiameter + 1, levelDiameter + 1);
+    private final Rectangle queueArea = new Rectangle(616, 76, 92, 270);
+    private final Rectangle boardArea;
+
+    // What was on screen after the last tick, used to work out the dirty areas of the next one
+    private final Rectangle brickArea = new Rectangle();
+    private final Rectangle phantomArea = new Rectangle();
+    private final Rectangle nextArea = new Rectangle();
+    private int lastScore = -1;
+    private int lastArc = -1;
+    private int lastLevel = -1;
+    private int lastPieces = -1;
+    private int lastVersion = -1;
+
+    // Everything paintComponent draws with is created once, so painting a frame allocates nothing
+    private final Color[] gridColors = {
+            new Color(.01f, .01f, .01f, .6f), // Darker grid color
+            new Color(.09f, .09f, .09f, .6f)  // Lighter grid color
+    };
+    private final Color fontColor = new Color(1f,1f,1f,.8f);
+    private final Font levelFont = new Font("Serif", Font.BOLD, 72);
+    private final Font scoreFont = new Font("Serif", Font.BOLD, 36);
+
+    // Indexed by board color code, empty cells and the invisible border have no color
+    private final Color[] brickColors = {
+            null,
+            null,
+            Color.decode(TetrisShapes.getColorCode(TetrisShapes.EL)),
+            Color.decode(TetrisShapes.getColorCode(TetrisShapes.LONG)),
+            Color.decode(TetrisShapes.getColorCode(TetrisShapes.JAY)),
+            Color.decode(TetrisShapes.getColorCode(TetrisShapes.ESS)),
+            Color.decode(TetrisShapes.getColorCode(TetrisShapes.ZEE)),
+            Color.decode(TetrisShapes.getColorCode(TetrisShapes.STACK)),
+            Color.decode(TetrisShapes.getColorCode(TetrisShapes.SQUARE))
+    };
+
+    // Score and level text, only rebuilt when the numbers change
+    private int shownScore = -1;
+    private String scoreText;
+    private int shownLevel = -1;
+    private String levelText;
+
+    // Carries the user's key presses to the game loop thread, in order
+    private final TetrisInputQueue inputQueue = new TetrisInputQueue(256);
+
+    // Fresh games are recorded, a watched replay drives the game instead of the keyboard
+    private TetrisReplay recording;
+    private TetrisReplay playback;
+    private boolean playbackEnded = false;
+
+    // In a demo the bot plays instead of the keyboard, one input every few ticks so it can be followed
+    // It plans on the game loop thread, so its look-ahead has to fit well inside a tick
+    private TetrisBot bot;
+    private final int botInputTicks = 8;
+    private final long botBudgetNanos = 4_000_000L;
 
     private TetrisGame game;
-    Timer timer;
+    TetrisLoop loop;
 
     public TetrisDisplay(TetrisGame game) {
         this.game = game;
+        boardArea = new Rectangle(startX, startY, game.fetchCols() * cellSize, (game.fetchRows() + 1) * cellSize);
         addKeyListener(this);
         setFocusable(true);
         setFocusTraversalKeysEnabled(false);
@@ -65,6 +123,12 @@ public class TetrisDisplay extends JPanel implements ActionListener, KeyListener
         } catch (IOException | IllegalArgumentException e){
         }
 
+        // Adds save button, the game carries on after saving
+        JButton slotBut = new JButton("Save");
+        slotBut.addActionListener(ae -> saveToSlot());
+        slotBut.setFocusable(false);
+        this.add(slotBut);
+
         // Adds save & quit button
         JButton saveBut = new JButton("Save & Quit");
         saveBut.addActionListener(ae -> saveAndQuit());
@@ -72,83 +136,237 @@ public class TetrisDisplay extends JPanel implements ActionListener, KeyListener
         this.add(saveBut);
 
         // Begins game
+        boolean loaded = false;
         if (TetrisWindow.loadedGame) {
-            // Properly loads game's score, level, fall-speed, and arc-length
-            game.loadGame();
-            fallSpeed = game.getFallSpeed();
-            level = game.getLevel();
-            arcLength = game.getArc();
+            // Restores the saved board, counters, active brick and queue
+            if (TetrisWindow.loadedSlot >= 0) {
+                loaded = loadFromSlot(TetrisWindow.loadedSlot);
+            } else {
+                loaded = TetrisWindow.persistence.read(game::loadGame).join();
+                if (!loaded) {
+                    JOptionPane.showMessageDialog(null, "Error, could not load the saved game\n make sure it is spelled " +
+                            "exactly:\n" + TetrisSaveFile.SAVE_FILE, "File Error", 2);
+                }
+            }
             TetrisWindow.loadedGame = false;
+            TetrisWindow.loadedSlot = -1;
+        }
+        playback = TetrisWindow.watchedReplay;
+        TetrisWindow.watchedReplay = null;
+        if (TetrisWindow.watchedBot) {
+            bot = new TetrisBot(game, botBudgetNanos, ForkJoinPool.commonPool());
+            TetrisWindow.watchedBot = false;
+        }
+        if (playback == null && bot == null && !loaded) {
+            recording = TetrisReplay.record(game);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::saveReplay, "Tetris replay writer"));
+            if (TetrisWindow.reportLatency) {
+                Runtime.getRuntime().addShutdownHook(new Thread(this::reportLatency, "Tetris latency report"));
+            }
         }
-        game.startGame(startX, startY, cellSize);
+        game.startGame();
 
-        timer = new Timer(inputSpeed, new ActionListener() {
+        loop = new TetrisLoop(game, this);
+        loop.start();
+    }
 
-            public void actionPerformed(ActionEvent aEvent) {
-                if (pressed.contains(KeyEvent.VK_DOWN)) {
-                    speedCounter += fallSpeed / 2;
-                    pressed.clear();
-                }
-                else if (pressed.contains(KeyEvent.VK_UP)) {
-                    game.validateRotate();
-                    pressed.clear();
-                }
-                else {
-                    game.moveHorizontal(pressed);
-                    timer.setDelay(fallSpeed);
-                    pressed.clear();
-                }
+    // One simulation tick, called from the game loop thread while it holds the game's lock
+    // Every key pressed since the last tick is applied in the order it was pressed
+    public void tick() {
+        if (playback != null) {
+            if (!playback.stepGame(game) && !playbackEnded) {
+                playbackEnded = true;
+                loop.stop();
+                SwingUtilities.invokeLater(this::replayFinished);
+            }
+            return;
+        }
+        if (bot != null) {
+            if (game.getTicks() % botInputTicks == 0) {
+                game.applyInput(bot.nextInput());
+            }
+            game.step(TetrisInput.NONE);
+            return;
+        }
+        while (inputQueue.poll()) {
+            game.applyInput(inputQueue.getPolledInput());
+            inputQueue.recordApplied(System.nanoTime());
+        }
+        game.step(TetrisInput.NONE);
+    }
 
-                if (speedCounter > fallSpeed) {
-                    game.validateMove(startY, startX, cellSize);
-                    game.setAmtLine(1);
-                    speedCounter = 0;
-                    arcLength++;
-                    game.setArc(arcLength);
-                    game.setFallSpeed(fallSpeed);
-                }
-                speedCounter++;
+    // Called from the game loop thread once the game has ended
+    public void gameOver() {
+        if (playback != null || bot != null) {
+            SwingUtilities.invokeLater(this::replayFinished);
+        } else {
+            SwingUtilities.invokeLater(this::gameOverAskName);
+        }
+    }
 
-                if (arcLength >= fullCircle) {
-                    arcLength = 0;
-                    level++;
-                    game.setLevel(level);
-                    fallSpeed -= fallSpeed / speedRatio;
-                }
+    // Writes the recorded session when the program exits, whichever way it exits
+    // Runs without the game's lock, so a stuck game loop cannot keep the replay from being written
+    private void saveReplay() {
+        recording.setEndTick(game.getTicks());
+        try {
+            recording.save(new File(TetrisReplay.LAST_REPLAY_FILE));
+        } catch (IOException e) {
+        }
+    }
 
-                repaint();
-            }
-        });
-        timer.start();
+    // Prints how long key presses waited before the game loop applied them, when the program exits with --latency
+    // Like saveReplay() it does not take the game's lock, a report a tick out of date does not matter
+    private void reportLatency() {
+        if (inputQueue.getLatencyCount() == 0) {
+            return;
+        }
+        System.out.printf("Input latency: %d inputs, mean %.2f ms, max %.2f ms%n", inputQueue.getLatencyCount(),
+                inputQueue.getAverageLatencyNanos() / 1e6, inputQueue.getMaxLatencyNanos() / 1e6);
+    }
+
+    public void replayFinished() {
+        String title = bot != null ? "Demo" : "Replay";
+        JOptionPane.showMessageDialog(null, title + " finished\nScore: " + game.getScore(), title, 1);
+        System.exit(0);
+    }
+
+    // Translates a key into a move for the game, keys the game does not use give NONE
+    public TetrisInput readInput(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_DOWN:
+                return TetrisInput.SOFT_DROP;
+            case KeyEvent.VK_UP:
+                return TetrisInput.ROTATE;
+            case KeyEvent.VK_SPACE:
+                return TetrisInput.HARD_DROP;
+            case KeyEvent.VK_LEFT:
+                return TetrisInput.LEFT;
+            case KeyEvent.VK_RIGHT:
+                return TetrisInput.RIGHT;
+            default:
+                return TetrisInput.NONE;
+        }
+    }
+
+    // Repaints only the parts of the screen that changed during the last tick
+    public void repaintDirty() {
+        brickBounds(game.getCurrentPlace(), nextArea);
+        if (!nextArea.equals(brickArea)) {
+            repaint(brickArea);
+            repaint(nextArea);
+            brickArea.setBounds(nextArea);
+        }
+        brickBounds(game.getPhantomBrick(), nextArea);
+        if (!nextArea.equals(phantomArea)) {
+            repaint(phantomArea);
+            repaint(nextArea);
+            phantomArea.setBounds(nextArea);
+        }
+        if (game.getScore() != lastScore) {
+            lastScore = game.getScore();
+            repaint(scoreArea);
+        }
+        if (game.getArc() != lastArc || game.getLevel() != lastLevel) {
+            lastArc = game.getArc();
+            lastLevel = game.getLevel();
+            repaint(levelArea);
+        }
+        if (game.getPiecesPlaced() != lastPieces) {
+            lastPieces = game.getPiecesPlaced();
+            repaint(queueArea);
+        }
+        if (game.getBoard().getVersion() != lastVersion) {
+            lastVersion = game.getBoard().getVersion();
+            repaint(boardArea);
+        }
+    }
+
+    // Screen area covered by a brick, including the outline drawn around phantom cells
+    private void brickBounds(TetrisBrick brick, Rectangle area) {
+        int type = brick.getType();
+        int rotation = brick.getOrientation();
+        area.setBounds(cellX(brick.getCol() + TetrisShapes.getMinX(type, rotation)),
+                cellY(brick.getRow() + TetrisShapes.getMinY(type, rotation)),
+                TetrisShapes.getWidth(type, rotation) * cellSize + 1,
+                TetrisShapes.getHeight(type, rotation) * cellSize + 1);
     }
 
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
+        // The game loop thread changes the game while holding its lock
+        synchronized (game) {
+            paintGame(g);
+        }
+    }
+
+    private void paintGame(Graphics g) {
         Graphics2D g2 = (Graphics2D) g;
 
         // Enabling Antialiasing
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        // Draw Background
-        g.drawImage(backgroundImage, 0, 0, this);
+        // Draw Background and checkerboard
+        if (staticLayer == null) {
+            staticLayer = createStaticLayer();
+        }
+        g.drawImage(staticLayer, 0, 0, this);
 
-        Color[] colors = new Color[2];
-        colors[0] = new Color(.01f, .01f, .01f, .6f); // Darker grid color
-        colors[1] = new Color(.09f, .09f, .09f, .6f); // Lighter grid color
-        Color fontColor = new Color(1f,1f,1f,.8f);
+        if (game.getScore() != shownScore) {
+            shownScore = game.getScore();
+            scoreText = "Score: " + shownScore;
+        }
+        if (game.getLevel() != shownLevel) {
+            shownLevel = game.getLevel();
+            levelText = "" + shownLevel;
+        }
 
-        g2.setColor(colors[1]);
-        g2.fillArc(levelXPos,levelYPos, levelDiameter, levelDiameter, fourthCircle, -arcLength);
+        if (g.hitClip(levelArea.x, levelArea.y, levelArea.width, levelArea.height)) {
+            g2.setColor(gridColors[1]);
+            g2.fillArc(levelXPos,levelYPos, levelDiameter, levelDiameter, fourthCircle, -game.getArc());
 
+            g2.setColor(fontColor);
+            g2.setFont(levelFont);
+            g2.drawString(levelText, numXPos, numYPos);
+        }
 
-        int fontSize = 72;
-        Font levelFont = new Font("Serif", Font.BOLD, fontSize);
-        g2.setColor(fontColor);
-        g2.setFont(levelFont);
-        g2.drawString("" + level, numXPos, numYPos);
+        if (g.hitClip(scoreArea.x, scoreArea.y, scoreArea.width, scoreArea.height)) {
+            g2.setFont(scoreFont);
+            g2.setColor(fontColor);
+            g2.drawString(scoreText, scoreXPos, scoreYPos);
+        }
+
+        if (g.hitClip(queueArea.x, queueArea.y, queueArea.width, queueArea.height)) {
+            displayQueue(g);
+        }
+
+        showFullBrick(g, game.getCurrentPlace());
+
+        showPhantom(g, game.getPhantomBrick());
+
+        TetrisBoard board = game.getBoard();
+        if (boardLayer == null) {
+            boardLayer = createLayer(board.getCols() * cellSize, board.getRows() * cellSize, Transparency.TRANSLUCENT);
+        }
+        if (board.getVersion() != boardLayerVersion) {
+            boardLayerVersion = board.getVersion();
+            Graphics2D layerGraphics = boardLayer.createGraphics();
+            layerGraphics.setComposite(AlphaComposite.Clear);
+            layerGraphics.fillRect(0, 0, boardLayer.getWidth(), boardLayer.getHeight());
+            layerGraphics.setComposite(AlphaComposite.SrcOver);
+            drawBoard(layerGraphics, 0, 0);
+            layerGraphics.dispose();
+        }
+        // adding size to accommodate for bottom of 2d array of board
+        g.drawImage(boardLayer, cellX(0), cellY(0), this);
+    }
 
-        fontSize = fontSize / 2;
-        Font font = new Font("Serif", Font.BOLD, fontSize);
+    // Draws the background image and the grey checkerboard pattern into a new image
+    private BufferedImage createStaticLayer() {
+        BufferedImage layer = createLayer(Math.max(getWidth(), 1), Math.max(getHeight(), 1), Transparency.OPAQUE);
+        Graphics2D layerGraphics = layer.createGraphics();
+        layerGraphics.setColor(getBackground());
+        layerGraphics.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+        layerGraphics.drawImage(backgroundImage, 0, 0, this);
 
         int x;
         int y = startY;
@@ -158,45 +376,186 @@ public class TetrisDisplay extends JPanel implements ActionListener, KeyListener
             x = startX;
             for (int col = 0; col < this.game.fetchCols(); col++) {
 
-                g.setColor(colors[(row + col) % 2]);
+                layerGraphics.setColor(gridColors[(row + col) % 2]);
 
-                g.fillRect(x, y, cellSize, cellSize);
+                layerGraphics.fillRect(x, y, cellSize, cellSize);
                 x += cellSize;
             }
             y += cellSize;
         }
+        layerGraphics.dispose();
+        return layer;
+    }
+
+    // Creates an image in the screen's pixel format when there is a screen, so drawing it is a plain copy
+    private BufferedImage createLayer(int width, int height, int transparency) {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config != null) {
+            return config.createCompatibleImage(width, height, transparency);
+        }
+        return new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
 
-        g2.setFont(font);
-        g2.setColor(fontColor);
-        g2.drawString("Score: " + game.getScore(), scoreXPos, scoreYPos);
+    // Converts the game's board into stationary bricks, with the top left cell at (originX, originY)
+    public void drawBoard(Graphics g, int originX, int originY) {
+        TetrisBoard board = game.getBoard();
+        int y = originY;
+        for (int row = 0; row < board.getRows(); row++) {
+            int x = originX;
+            for (int col = 0; col < board.getCols(); col++) {
+                Color cellColor = getBrickColor(board.getColor(row, col));
+                if (cellColor != null) {
+                    g.setColor(cellColor);
+                    g.fillRect(x, y, cellSize, cellSize);
+                }
+                x += cellSize;
+            }
+            y += cellSize;
+        }
+    }
 
-        displayQueue(g);
+    // Draws every cell of the brick from the shared shape table
+    public void showFullBrick(Graphics g, TetrisBrick brick) {
+        int type = brick.getType();
+        int rotation = brick.getOrientation();
+        g.setColor(getBrickColor(TetrisShapes.getBoardColor(type)));
+        for (int cell = 0; cell < TetrisShapes.AMT_CELLS; cell++) {
+            g.fillRect(cellX(brick.getCol() + TetrisShapes.getCellX(type, rotation, cell)),
+                    cellY(brick.getRow() + TetrisShapes.getCellY(type, rotation, cell)), cellSize, cellSize);
+        }
+    }
 
-        try {
-            game.checkForLine();
-        } catch (Exception e) {
+    public void showPhantom(Graphics g, TetrisBrick brick) {
+        int type = brick.getType();
+        int rotation = brick.getOrientation();
+        g.setColor(getBrickColor(TetrisShapes.getBoardColor(type)));
+        for (int cell = 0; cell < TetrisShapes.AMT_CELLS; cell++) {
+            g.drawRect(cellX(brick.getCol() + TetrisShapes.getCellX(type, rotation, cell)),
+                    cellY(brick.getRow() + TetrisShapes.getCellY(type, rotation, cell)), cellSize, cellSize);
         }
-        game.getCurrentPlace().showFullBrick(g);
+    }
 
-        game.movePhantom(game.getPhantomBrick());
-        game.getPhantomBrick().showPhantom(g);
+    // Screen position of a board column, the game itself only knows cells
+    private int cellX(int col) {
+        return startX + col * cellSize;
+    }
 
-        game.drawBoard(g, startX, startY, cellSize);
+    // Screen position of a board row, row 0 is drawn one cell below startY so bricks can spawn above it
+    private int cellY(int row) {
+        return startY + (row + 1) * cellSize;
     }
 
+    // Queue previews are always drawn in the spawn orientation
+    public void showQueue(Graphics g, int type, int xCord, int yCord, int size) {
+        g.setColor(getBrickColor(TetrisShapes.getBoardColor(type)));
+        for (int cell = 0; cell < TetrisShapes.AMT_CELLS; cell++) {
+            g.fillRect(xCord + TetrisShapes.getCellX(type, 0, cell) * size,
+                    yCord + TetrisShapes.getCellY(type, 0, cell) * size, size, size);
+        }
+    }
+
+    // Looks up the color of a board color code, empty cells and the invisible border have none
+    public Color getBrickColor(int code) {
+        return brickColors[code];
+    }
+
+    // Up to three previews are drawn full size, longer previews are shrunk to fit the same box
     public void displayQueue(Graphics g) {
         int queueX = 640;
-        int queueY1 = 100;
-        int queueY2 = 200;
-        int queueY3 = 300;
+        int queueY = 100;
+        int slotHeight = 100;
+        int shownSlots = 3;
+        int queueHeight = 240;
+
+        int depth = game.getPreviewDepth();
+        int size = cellSize;
+        if (depth > shownSlots) {
+            size = cellSize * shownSlots / depth;
+            slotHeight = queueHeight / (depth - 1);
+        }
+        for (int index = 0; index < depth; index++) {
+            showQueue(g, game.getQueue(index), queueX, queueY + index * slotHeight, size);
+        }
+    }
 
-        game.getQueue(0).showQueue(g, queueX, queueY1);
-        game.getQueue(1).showQueue(g, queueX, queueY2);
-        game.getQueue(2).showQueue(g, queueX, queueY3);
+    // The game has not started yet while loading, so waiting on the persistence thread holds up no frames
+    private boolean loadFromSlot(int slot) {
+        try {
+            TetrisWindow.persistence.read(() -> {
+                TetrisWindow.saveStore.load(slot, game);
+                return null;
+            }).join();
+        } catch (CompletionException e) {
+            showFileError("Error, could not load the saved game", e);
+            return false;
+        }
+        return true;
+    }
+
+    // Saves the game under a name the player picks, then carries on playing
+    // Only taking the snapshot holds the game's lock, the slot is written on the persistence thread
+    public void saveToSlot() {
+        if (TetrisWindow.saveStore == null) {
+            JOptionPane.showMessageDialog(null, "Error, the save slots could not be opened\n make sure " +
+                    TetrisSaveStore.STORE_FILE + " is not in use", "File Error", 2);
+            return;
+        }
+        loop.setPaused(true);
+        try {
+            String name = JOptionPane.showInputDialog(null, "Save this game as", "Save Game", 3);
+            if (name == null || name.trim().isEmpty()) {
+                return;
+            }
+            String saveName = name.trim();
+            ByteBuffer record;
+            synchronized (game) {
+                record = TetrisSaveFile.encode(game);
+            }
+            TetrisWindow.persistence.write("slot:" + saveName, () -> TetrisWindow.saveStore.save(saveName, record))
+                    .whenComplete((result, error) -> {
+                        if (error != null) {
+                            SwingUtilities.invokeLater(() -> showFileError("Error, the game could not be saved", error));
+                        }
+                    });
+        } finally {
+            loop.setPaused(false);
+            requestFocusInWindow();
+        }
     }
 
     public void saveAndQuit() {
-        game.saveGame();
+        loop.stop();
+        ByteBuffer record;
+        synchronized (game) {
+            record = TetrisSaveFile.encode(game);
+        }
+        TetrisWindow.persistence.write(TetrisSaveFile.SAVE_FILE,
+                () -> TetrisSaveFile.write(record, Paths.get(TetrisSaveFile.SAVE_FILE)))
+                .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        showFileError("Error, the game could not be saved", error);
+                    }
+                    System.exit(0);
+                }));
+    }
+
+    public void gameOverAskName() {
+        String playerName = JOptionPane.showInputDialog(null,"GAME OVER\n" + "You scored: " + game.getScore() + "\nPlease enter name" +
+                " for the Leader Board", "GAME OVER", 2);
+        int finalScore = game.getScore();
+        TetrisWindow.persistence.write(null, () -> TetrisWindow.highScores.add(finalScore, playerName))
+                .whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error != null) {
+                        showFileError("Error, the score could not be added to the leader board", error);
+                    }
+                    System.exit(0);
+                }));
+    }
+
+    private void showFileError(String message, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        JOptionPane.showMessageDialog(null, message + "\n" + cause.getMessage(), "File Error", 2);
     }
 
     public void interpretKey(ActionEvent aEvent) {
@@ -204,7 +563,10 @@ public class TetrisDisplay extends JPanel implements ActionListener, KeyListener
     }
 
     public void keyPressed(KeyEvent kEvent) {
-        pressed.add(kEvent.getKeyCode());
+        TetrisInput input = readInput(kEvent.getKeyCode());
+        if (input != TetrisInput.NONE && playback == null && bot == null) {
+            inputQueue.offer(input, System.nanoTime());
+        }
     }
 
     public void keyReleased(KeyEvent kEvent) {
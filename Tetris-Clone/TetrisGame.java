@@ -5,1286 +5,493 @@
 // Responds to the moves reported by the TetrisDisplay class
 // Responsible for tracking the rows on the board to detect when rows have been filled
 // Must also have end detection logic
+//
+// Has no Swing or AWT dependency, a game can be played headless by calling step() once per tick
 
-import javax.swing.*;
-import java.awt.*;
-import java.awt.event.KeyEvent;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.*;
 
 public class TetrisGame {
+    // step() is called this many times per second, whatever the frame rate
+    public static final int TICKS_PER_SECOND = 60;
 
     private TetrisBrick currentPlace;
     private TetrisBrick phantomBrick;
 
-    private int[][] board;
+    // Landing row of the active brick, only recomputed after the brick or the board changes
+    private int ghostRow;
+    private boolean ghostValid = false;
+    private boolean phantomValid = false;
+
+    private TetrisBoard board;
     private int score = 0;
     private int state = 0;
+    private boolean gameOver = false;
+
+    // Board cell new bricks spawn on, one row above the top of the board
+    private final int spawnCol = 2;
+    private final int spawnRow = -1;
+
+    private TetrisRandomizer randomizer;
+    private int piecesPlaced = 0;
+    private int linesCleared = 0;
+
+    // Ticks stepped so far, and where applied inputs are recorded to (null when not recording)
+    private int ticks = 0;
+    private TetrisReplay recorder;
 
     private int level = 1;
     private int arcLength = 0;
-    private int speed;
+    private int fallSpeed = 32;
+    private int speedCounter;
     private int amtLine = 1;
 
-    private Queue<TetrisBrick> brickQueue = new LinkedList<TetrisBrick>();
+    private final int fullCircle = 360;
+    private final int speedRatio = 8;
+
+    // Types of the upcoming bricks, the active and phantom bricks are reused for every spawn
+    private TetrisBrickQueue brickQueue = new TetrisBrickQueue(16);
+
+    // Upcoming bricks the player can see, the queue always holds at least this many
+    private int previewDepth = 3;
+    private final int maxPreviewDepth = 7;
 
     private int scoreIncrement = 100;
-    private final int elColor = 2;
-    private final int longColor = 3;
-    private final int jayColor = 4;
-    private final int essColor = 5;
-    private final int zeeColor = 6;
-    private final int stackColor = 7;
-    private final int squareColor = 8;
-    private final int amtBricks = 7;
-    private final int amtCol = 9;
-    private final int amtStartBrick = 4;
-
-    private final int up = 0;
-    private final int right = 1;
-    private final int down = 2;
-    private final int left = 3;
+    private final int borderColor = 1;
 
     public TetrisGame(int rows, int cols) {
-        board = new int[rows][cols];
+        this(rows, cols, new SplittableRandom().nextLong());
+    }
+
+    // Seeded game dealing from a 7-bag, the same seed and the same inputs always play out the same way
+    public TetrisGame(int rows, int cols, long seed) {
+        this(rows, cols, new BagRandomizer(seed, 1));
+    }
+
+    public TetrisGame(int rows, int cols, TetrisRandomizer randomizer) {
+        board = new TetrisBoard(rows, cols);
+        this.randomizer = randomizer;
     }
 
     // Generates first brick and defines bottom border of board
-    public void startGame(int x_cord, int y_cord, int size) {
+    // A game restored from a save already has its brick and keeps it
+    public void startGame() {
         // creates bottom border
-        for (int lastCol= 0; lastCol < board[0].length; lastCol++) {
-            board[board.length - 1][lastCol] = 1;
+        for (int lastCol= 0; lastCol < board.getCols(); lastCol++) {
+            board.set(board.getRows() - 1, lastCol, borderColor);
         }
-        try {
-            generateRandomBrick(y_cord, x_cord, size);
-        } catch (CloneNotSupportedException e) {
-            e.printStackTrace();
+        if (currentPlace == null) {
+            generateRandomBrick();
         }
     }
 
-    // Converts 2D array board into stationary bricks
-    public void drawBoard(Graphics g, int startX, int startY, int size) {
-        // adding size to accommodate for bottom of 2d array of board
-        int y = startY + size;
-        for (int row = 0; row < this.fetchRows(); row++) {
-            int x = startX;
-            for (int col = 0; col < this.fetchCols(); col++) {
-                if (board[row][col] == 1) { // Invisible border
-                    Color invisible = new Color(0f,0f,0f,0f);
-                    g.setColor(invisible);
-                    g.fillRect(x, y, size, size);
-                    x += size;
-                }
-                else if (board[row][col] == elColor) {
-                    g.setColor(Color.decode(ElBrick.getColorCode()));
-                    g.fillRect(x, y, size, size);
-                    x += size;
-                }
-                else if (board[row][col] == longColor) {
-                    g.setColor(Color.decode(LongBrick.getColorCode()));
-                    g.fillRect(x, y, size, size);
-                    x += size;
-                }
-                else if (board[row][col] == jayColor) {
-                    g.setColor(Color.decode(JayBrick.getColorCode()));
-                    g.fillRect(x, y, size, size);
-                    x += size;
-                }
-                else if (board[row][col] == essColor) {
-                    g.setColor(Color.decode(EssBrick.getColorCode()));
-                    g.fillRect(x, y, size, size);
-                    x += size;
-                }
-                else if (board[row][col] == zeeColor) {
-                    g.setColor(Color.decode(ZeeBrick.getColorCode()));
-                    g.fillRect(x, y, size, size);
-                    x += size;
-                }
-                else if (board[row][col] == stackColor) {
-                    g.setColor(Color.decode(StackBrick.getColorCode()));
-                    g.fillRect(x, y, size, size);
-                    x += size;
-                }
-                else if (board[row][col] == squareColor) {
-                    g.setColor(Color.decode(SquareBrick.getColorCode()));
-                    g.fillRect(x, y, size, size);
-                    x += size;
-                } else {
-                    x += size;
-                }
-            }
-            y += size;
+    // Advances the game by one tick: applies the input, then lets gravity and leveling run
+    public void step(TetrisInput input) {
+        applyInput(input);
+        if (gameOver) {
+            return;
         }
-    }
 
-    // Takes color value and coordinates, then equates them to a particular spot in 2D board array
-    public void updateBoard(int ySpot, int xSpot, int color) {
-        board[ySpot - 2][xSpot] = color;
-    }
+        if (speedCounter >= gravityTicks()) {
+            validateMove();
+            amtLine = 1;
+            speedCounter = 0;
+            arcLength++;
+        }
+        speedCounter++;
 
-    // Checks for a row that is filled with stationary bricks from the 2D board array
-    public void checkForLine() {
-        int rowChecker = 0;
+        if (arcLength >= fullCircle) {
+            arcLength = 0;
+            level++;
+            fallSpeed -= fallSpeed / speedRatio;
+        }
+        ticks++;
+    }
 
-        for (int row = board.length - 1; row >= 0; row--) {
-            for (int col = 0; col < board[0].length; col++) {
-                if (board[row][col] != 0 && board[row][col] != 1) {
-                    rowChecker++;
-                }
-                if (rowChecker > amtCol) {
-                    score += scoreIncrement * amtLine;
-                    deleteLine(row);
-                }
-            }
-            rowChecker = 0;
+    // Applies a single input to the active brick without advancing time, several can be applied per tick
+    public void applyInput(TetrisInput input) {
+        if (gameOver) {
+            return;
+        }
+        if (recorder != null && input != TetrisInput.NONE) {
+            recorder.record(ticks, input);
+        }
+        switch (input) {
+            case SOFT_DROP:
+                speedCounter += gravityTicks() / 2;
+                break;
+            case ROTATE:
+                validateRotate();
+                break;
+            case HARD_DROP:
+                hardDrop();
+                break;
+            case LEFT:
+                moveHorizontal(-1);
+                break;
+            case RIGHT:
+                moveHorizontal(1);
+                break;
+            default:
+                break;
         }
     }
 
-    // Takes row index from checkForLine and removes it and lowers preceding rows
-    public void deleteLine(int rowIndex) {
-        amtLine++;
-        for (int col = 0; col < board.length; col++) {
-            for (int counter = 0; counter < board[0].length; counter++) {
-                board[rowIndex - col][counter] = board[rowIndex - col - 1][counter];
-            }
+    // Takes color value and coordinates, then equates them to a particular spot in 2D board array
+    public void updateBoard(int row, int col, int color) {
+        board.set(row, col, color);
+        invalidateGhost();
+    }
+
+    // Clears the filled rows among the rows a brick just locked into, each extra line in a row is worth more
+    public void checkForLine(int fromRow, int toRow) {
+        int cleared = board.clearLines(fromRow, toRow);
+        linesCleared += cleared;
+        for (int line = 0; line < cleared; line++) {
+            score += scoreIncrement * amtLine;
+            amtLine++;
+        }
+        if (cleared > 0) {
+            invalidateGhost();
         }
     }
 
+    // Ticks between gravity steps, the brick used to fall once every (fallSpeed + 1) timer ticks of fallSpeed ms
+    private int gravityTicks() {
+        return Math.max(1, (fallSpeed + 1) * fallSpeed * TICKS_PER_SECOND / 1000);
+    }
+
     // Validates moves for the active brick as it falls down
-    public void validateMove(int y_cord, int x_cord, int size) {
+    public void validateMove() {
         if (validateGameOver() == true) {
-            gameOverAskName();
+            gameOver = true;
+            return;
         }
-        try {
-            if (currentPlace instanceof ElBrick) {
-                if (currentPlace.getOrientation() == up) {
-                    if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 // tests center lower brick
-                            && board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0 // tests left lower brick
-                            && board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0) { // tests right lower brick
-                        currentPlace.moveDown();
-                    }else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), elColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 1), elColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() - 1), elColor);
-                        updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord() + 1), elColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-                if (currentPlace.getOrientation() == right) {
-                    if (board[currentPlace.getyCord()][currentPlace.getxCord()] == 0 &&
-                        board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), elColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord()), elColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord()) + 1, elColor);
-                        updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), elColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-                if (currentPlace.getOrientation() == down) {
-                    if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 &&
-                        board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0 &&
-                        board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), elColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 1), elColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() - 1), elColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord() - 1), elColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-                if (currentPlace.getOrientation() == left) {
-                    if (board[currentPlace.getyCord()][currentPlace.getxCord()] == 0 &&
-                            board[currentPlace.getyCord() - 2][currentPlace.getxCord() - 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), elColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord()), elColor);
-                        updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), elColor);
-                        updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()) - 1, elColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-            }
-            if (currentPlace instanceof JayBrick) {
-                if (currentPlace.getOrientation() == up) {
-                    if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 // tests center upper brick
-                            && board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0 // tests left upper brick
-                            && board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0) { // tests right lower brick
-                        currentPlace.moveDown();
-                    }else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), jayColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() - 1), jayColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 1), jayColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord() + 1), jayColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-                if (currentPlace.getOrientation() == right) {
-                    if (board[currentPlace.getyCord()][currentPlace.getxCord()] == 0 &&
-                        board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), jayColor);
-                        updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), jayColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord()), jayColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord()) - 1, jayColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-                if (currentPlace.getOrientation() == down) {
-                    if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 &&
-                            board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0 &&
-                            board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), jayColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 1), jayColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() - 1), jayColor);
-                        updateBoard((currentPlace.getyCord() - 1), (currentPlace.getxCord() - 1), jayColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-
-                }
-                if (currentPlace.getOrientation() == left) {
-                    if (board[currentPlace.getyCord()][currentPlace.getxCord()] == 0 &&
-                        board[currentPlace.getyCord() - 2][currentPlace.getxCord() + 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), jayColor);
-                        updateBoard((currentPlace.getyCord() - 1), (currentPlace.getxCord()), jayColor);
-                        updateBoard((currentPlace.getyCord() + 1), (currentPlace.getxCord()), jayColor);
-                        updateBoard((currentPlace.getyCord() - 1), (currentPlace.getxCord() + 1), jayColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-            }
-            if (currentPlace instanceof LongBrick) {
-                if (currentPlace.getOrientation() == up || currentPlace.getOrientation() == down) {
-                    if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 // tests 2nd brick
-                            && board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0 // tests 1st brick
-                            && board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0 // tests 3rd brick
-                            && board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 2] == 0) { // tests 4th brick
-                        currentPlace.moveDown();
-                    }else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), longColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 1), longColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() - 1), longColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 2), longColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-                if (currentPlace.getOrientation() == right || currentPlace.getOrientation() == left) {
-                    if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), longColor);
-                        updateBoard((currentPlace.getyCord() - 1), (currentPlace.getxCord()), longColor);
-                        updateBoard((currentPlace.getyCord() + 1), (currentPlace.getxCord()), longColor);
-                        updateBoard((currentPlace.getyCord() + 2), (currentPlace.getxCord()), longColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-            }
-            if (currentPlace instanceof StackBrick) {
-                if (currentPlace.getOrientation() == up) {
-                    if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 // tests center lower brick
-                            && board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0 // tests left lower brick
-                            && board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0) { // tests right lower brick
-                        currentPlace.moveDown();
-                    }else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), stackColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() - 1), stackColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 1), stackColor);
-                        updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), stackColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-                if (currentPlace.getOrientation() == right) {
-                    if (board[currentPlace.getyCord()][currentPlace.getxCord()] == 0 &&
-                        board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), stackColor);
-                        updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), stackColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord()), stackColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()) + 1, stackColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-                if (currentPlace.getOrientation() == down) {
-                    if (board[currentPlace.getyCord()][currentPlace.getxCord()] == 0 &&
-                        board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0 &&
-                        board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), stackColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()) + 1, stackColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()) - 1, stackColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord()), stackColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-                if (currentPlace.getOrientation() == left) {
-                    if (board[currentPlace.getyCord()][currentPlace.getxCord()] == 0 &&
-                        board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), stackColor);
-                        updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), stackColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord()), stackColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()) - 1, stackColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-            }
-            if (currentPlace instanceof ZeeBrick) {
-                if (currentPlace.getOrientation() == up || currentPlace.getOrientation() == down) {
-                    if (currentPlace.getyCord() > 1) {
-                        if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 // tests center lower brick
-                                && board[currentPlace.getyCord() - 2][currentPlace.getxCord() - 1] == 0 // tests left upper brick
-                                && board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0) { // tests right lower brick
-                            currentPlace.moveDown();
-                        } else {
-                            updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), zeeColor);
-                            updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 1), zeeColor);
-                            updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), zeeColor);
-                            updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord() - 1), zeeColor);
-                            generateRandomBrick(y_cord, x_cord, size);
-                        }
-                    } else {
-                        if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 // tests center lower brick
-                                && board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0) { // tests right lower brick
-                            currentPlace.moveDown();
-                        } else {
-                            updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), zeeColor);
-                            updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 1), zeeColor);
-                            updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), zeeColor);
-                            updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord() - 1), zeeColor);
-                            generateRandomBrick(y_cord, x_cord, size);
-                        }
-                    }
-                }
-                if (currentPlace.getOrientation() == right || currentPlace.getOrientation() == left) {
-                    if (board[currentPlace.getyCord()][currentPlace.getxCord()] == 0 &&
-                        board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), zeeColor);
-                        updateBoard((currentPlace.getyCord() - 1), (currentPlace.getxCord() + 1), zeeColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 1), zeeColor);
-                        updateBoard((currentPlace.getyCord() + 1), (currentPlace.getxCord()), zeeColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-            }
-            if (currentPlace instanceof SquareBrick) {
-                if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 // tests left lower brick
-                        && board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0) { // tests right lower brick
-                    currentPlace.moveDown();
-                }else {
-                    updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), squareColor);
-                    updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() + 1), squareColor);
-                    updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord() + 1), squareColor);
-                    updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), squareColor);
-                    generateRandomBrick(y_cord, x_cord, size);
-                }
-            }
-            if (currentPlace instanceof EssBrick) {
-                if (currentPlace.getOrientation() == up || currentPlace.getOrientation() == down) {
-                    if (currentPlace.getyCord() > 1) { // must be tested to keep in bounds when y cord <= 1
-                        if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 // tests center lower brick
-                                && board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0 // tests left lower brick
-                                && board[currentPlace.getyCord() - 2][currentPlace.getxCord() + 1] == 0) { // tests right upper brick
-                            currentPlace.moveDown();
-                        } else {
-                            updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), essColor);
-                            updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() - 1), essColor);
-                            updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), essColor);
-                            updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord() + 1), essColor);
-                            generateRandomBrick(y_cord, x_cord, size);
-                        }
-                    } else {
-                        if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 // tests center lower brick
-                                && board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0) { // tests left lower brick
-                            currentPlace.moveDown();
-                        } else {
-                            updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), essColor);
-                            updateBoard((currentPlace.getyCord()), (currentPlace.getxCord() - 1), essColor);
-                            updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), essColor);
-                            updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord() + 1), essColor);
-                            generateRandomBrick(y_cord, x_cord, size);
-                        }
-                    }
-                }
-                if (currentPlace.getOrientation() == right || currentPlace.getOrientation() == left) {
-                    if (board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 &&
-                        board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0) {
-                        currentPlace.moveDown();
-                    } else {
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()), essColor);
-                        updateBoard((currentPlace.getyCord()) - 1, (currentPlace.getxCord()), essColor);
-                        updateBoard((currentPlace.getyCord()), (currentPlace.getxCord()) + 1, essColor);
-                        updateBoard((currentPlace.getyCord()) + 1, (currentPlace.getxCord()) + 1, essColor);
-                        generateRandomBrick(y_cord, x_cord, size);
-                    }
-                }
-
-            }
-        } catch (ArrayIndexOutOfBoundsException | CloneNotSupportedException aie) {
+        if (canPlace(currentPlace, 1, 0, currentPlace.getOrientation())) {
+            currentPlace.moveDown();
+            invalidateGhost();
+        } else {
+            lockBrick(currentPlace);
+            piecesPlaced++;
+            generateRandomBrick();
         }
     }
 
     // Validates that the brick can in fact rotate without interference from border or stationary brick(s)
     public void validateRotate() {
-        try {
-            if (currentPlace instanceof ElBrick) {
-                switch (currentPlace.getOrientation()) {
-                    case up:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case right:
-                        if (board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case down:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case left:
-                        if (board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0 &&
-                                board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                }
-            }
-            if (currentPlace instanceof LongBrick) {
-                switch (currentPlace.getOrientation()) {
-                    case up:
-                    case down:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() - 2][currentPlace.getxCord()] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case right:
-                    case left:
-                        if (board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 2] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                }
-            }
-            if (currentPlace instanceof JayBrick) {
-                switch (currentPlace.getOrientation()) {
-                    case up:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case right:
-                        if (board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0 &&
-                                board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case down:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case left:
-                        if (board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                }
-            }
-            if (currentPlace instanceof EssBrick) {
-                switch (currentPlace.getOrientation()) {
-                    case up:
-                    case down:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case right:
-                    case left:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                }
-            }
-            if (currentPlace instanceof StackBrick) {
-                switch (currentPlace.getOrientation()) {
-                    case up:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case right:
-                        if (board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case down:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case left:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                }
-            }
-            if (currentPlace instanceof ZeeBrick) {
-                switch (currentPlace.getOrientation()) {
-                    case up:
-                    case down:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0 &&
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                    case right:
-                    case left:
-                        if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] == 0 &&
-                                board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] == 0 &&
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 1] == 0) {
-                            currentPlace.rotate();
-                            phantomBrick.reset();
-                            phantomBrick.rotate();
-                        }
-                        break;
-                }
-            }
-            if (currentPlace instanceof SquareBrick) {
-                currentPlace.rotate();
-                phantomBrick.reset();
-                phantomBrick.rotate();
-            }
+        if (canPlace(currentPlace, 0, 0, TetrisShapes.nextRotation(currentPlace.getOrientation()))) {
+            currentPlace.rotate();
+            invalidateGhost();
+        }
+    }
 
-        } catch (ArrayIndexOutOfBoundsException aie) {
+    // Drops the active brick straight onto the board and locks it in place
+    public void hardDrop() {
+        currentPlace.moveDown(getGhostRow() - currentPlace.getRow());
+        validateMove();
+    }
+
+    // Row the active brick's center would land on, computed from the board's column heights
+    public int getGhostRow() {
+        if (!ghostValid) {
+            ghostRow = board.dropRow(currentPlace.getType(), currentPlace.getOrientation(),
+                    currentPlace.getRow(), currentPlace.getCol());
+            ghostValid = true;
         }
+        return ghostRow;
     }
 
-    // Validates moves for the active brick as the user inputs horizontal direction
-    public boolean validateHorizontal(String direction) {
-        try {
-            if (currentPlace instanceof ElBrick) {
-                if (direction == "left") {
-                    switch (currentPlace.getOrientation()) {
-                        case up:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() - 2] != 0 ||
-                                board[currentPlace.getyCord() + 1][currentPlace.getxCord()] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                            if (board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case down:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() - 2] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 2] != 0) {
-                                return false;
-                            }
-                            break;
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 2] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                            break;
-                    }
-                }
-                if (direction == "right") {
-                    switch (currentPlace.getOrientation()) {
-                        case up:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 2] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 2] != 0) {
-                                return false;
-                            }
-                            break;
-                        case down:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] != 0) {
-                                return false;
-                            }
-                            break;
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 1] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] != 0) {
-                                return false;
-                            }
-                            break;
-                    }
-                }
-            }
-            if (currentPlace instanceof LongBrick) {
-                if (direction == "left") {
-                    switch (currentPlace.getOrientation()) {
-                        case up:
-                        case down:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() - 2] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord() - 2][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                    }
-                }
-                if (direction == "right") {
-                    switch (currentPlace.getOrientation()) {
-                        case up:
-                        case down:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() + 2 + 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] != 0 ||
-                                    board[currentPlace.getyCord()][currentPlace.getxCord() + 1] != 0 ||
-                                    board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] != 0 ||
-                                    board[currentPlace.getyCord() - 2][currentPlace.getxCord() + 1] != 0) {
-                                return false;
-                            }
-                    }
-                }
-            }
-            if (currentPlace instanceof JayBrick) {
-                if (direction == "left") {
-                    switch (currentPlace.getOrientation()) {
-                        case up:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() - 2] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 2] != 0) {
-                                return false;
-                            }
-                            break;
-                        case down:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 2] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 2] != 0) {
-                                return false;
-                            }
-                            break;
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                            break;
-                    }
-                }
-                if (direction == "right") {
-                    switch (currentPlace.getOrientation()) {
-                        case up:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0 ||
-                                    board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 2] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] != 0 ||
-                                    board[currentPlace.getyCord()][currentPlace.getxCord() + 1] != 0 ||
-                                    board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case down:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] != 0 ||
-                                    board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0) {
-                                return false;
-                            }
-                            break;
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 2] != 0 ||
-                                    board[currentPlace.getyCord()][currentPlace.getxCord() + 1] != 0 ||
-                                    board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] != 0) {
-                                return false;
-                            }
-                            break;
-                    }
-                }
-            }
-            if (currentPlace instanceof EssBrick) {
-                if (direction == "left") {
-                    switch (currentPlace.getOrientation()) {
-                        case down:
-                        case up:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() - 2] != 0 ||
-                                board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case left:
-                        case right:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord()] != 0) {
-                                return false;
-                            }
-                            break;
-                    }
-                }
-                if (direction == "right") {
-                    switch (currentPlace.getOrientation()) {
-                        case down:
-                        case up:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 2] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 2] != 0) {
-                                return false;
-                            }
-                            break;
-                    }
-                }
-            }
-            if (currentPlace instanceof StackBrick) {
-                if (direction == "left") {
-                    switch (currentPlace.getOrientation()) {
-                        case up:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() - 2] != 0 ||
-                                board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case down:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() - 2] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 2] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                            break;
-                    }
-                }
-                if (direction == "right") {
-                    switch (currentPlace.getOrientation()) {
-                        case up:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case down:
-                            if (board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 1] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] != 0) {
-                                return false;
-                            }
-                            break;
-                    }
-                }
-            }
-            if (currentPlace instanceof ZeeBrick) {
-                if (direction == "left") {
-                    switch (currentPlace.getOrientation()) {
-                        case up:
-                        case down:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 2] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord()] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() - 1] != 0) {
-                                return false;
-                            }
-                            break;
-                    }
-                }
-                if (direction == "right") {
-                    switch (currentPlace.getOrientation()) {
-                        case up:
-                        case down:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 1] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0) {
-                                return false;
-                            }
-                            break;
-                        case right:
-                        case left:
-                            if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 2] != 0 ||
-                                board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0 ||
-                                board[currentPlace.getyCord() - 1][currentPlace.getxCord() + 1] != 0) {
-                                return false;
-                            }
-                            break;
-                    }
-                }
-            }
-            if (currentPlace instanceof SquareBrick) { // This is my favorite brick <3
-                if (direction == "left") {
-                    if (board[currentPlace.getyCord()][currentPlace.getxCord() - 1] != 0 ||
-                        board[currentPlace.getyCord() + 1][currentPlace.getxCord() - 1] != 0) {
-                        return false;
-                    }
-                }
-                if (direction == "right") {
-                    if (board[currentPlace.getyCord() + 1][currentPlace.getxCord() + 2] != 0 ||
-                            board[currentPlace.getyCord()][currentPlace.getxCord() + 2] != 0) {
-                        return false;
-                    }
-                }
+    // Called whenever the active brick moves or the board changes
+    private void invalidateGhost() {
+        ghostValid = false;
+        phantomValid = false;
+    }
+
+    // Validates moving the active brick one column to the side, a shift of -1 is left and 1 is right
+    public boolean validateHorizontal(int shift) {
+        return canPlace(currentPlace, 0, shift, currentPlace.getOrientation());
+    }
+
+    // Tests the brick's shape against the board after moving it by the given rows/cols and rotating it
+    private boolean canPlace(TetrisBrick brick, int rowShift, int colShift, int rotation) {
+        return board.fits(brick.getType(), rotation, brick.getRow() + rowShift, brick.getCol() + colShift);
+    }
+
+    // Copies every cell of the brick into the board, then clears any lines it completed
+    private void lockBrick(TetrisBrick brick) {
+        int type = brick.getType();
+        int rotation = brick.getOrientation();
+        for (int cell = 0; cell < TetrisShapes.AMT_CELLS; cell++) {
+            int row = brick.getRow() + TetrisShapes.getCellY(type, rotation, cell);
+            // cells still above the board are dropped, the game over check catches those
+            if (row >= 0) {
+                updateBoard(row, brick.getCol() + TetrisShapes.getCellX(type, rotation, cell),
+                        TetrisShapes.getBoardColor(type));
             }
-        } catch (ArrayIndexOutOfBoundsException aie) {
-            return false;
         }
-        return true;
+        int topRow = brick.getRow() + TetrisShapes.getMinY(type, rotation);
+        checkForLine(topRow, topRow + TetrisShapes.getHeight(type, rotation) - 1);
     }
 
     // Validates whether the player has lost the game or not
     public boolean validateGameOver() {
-        for (int counter = 0; counter < board[0].length; counter++) {
-            if (board[0][counter] != 0) {
-                return true;
-            }
-        }
-        return false;
+        return !board.isRowEmpty(0);
     }
 
-    // Moves active brick either left or right, depending on user's input, then asks for validation
-    public void moveHorizontal(HashSet key) {
-        if (key.contains(KeyEvent.VK_LEFT)) {
-            if (validateHorizontal("left")) {
+    // Moves the active brick one column left (shift -1) or right (shift 1) when it fits there
+    public void moveHorizontal(int shift) {
+        if (validateHorizontal(shift)) {
+            if (shift < 0) {
                 currentPlace.moveLeft();
-                phantomBrick.reset();
-                phantomBrick.moveLeft();
-            }
-        }
-        if (key.contains(KeyEvent.VK_RIGHT)) {
-            if (validateHorizontal("right")) {
+            } else {
                 currentPlace.moveRight();
-                phantomBrick.reset();
-                phantomBrick.moveRight();
             }
+            invalidateGhost();
         }
     }
 
+    // Moves the phantom brick to where the active brick would land
     public void movePhantom(TetrisBrick brick) {
-        try {
-            if (brick instanceof ElBrick) {
-                switch (brick.getOrientation()) {
-                    case up:
-                        while (board[brick.getyCord() - 1][brick.getxCord()] == 0 // tests center lower brick
-                                && board[brick.getyCord() - 1][brick.getxCord() - 1] == 0 // tests left lower brick
-                                && board[brick.getyCord() - 1][brick.getxCord() + 1] == 0){
-                            brick.moveDown();
-                        }
-                        break;
-                    case right:
-                        while (board[brick.getyCord()][brick.getxCord()] == 0 &&
-                                board[brick.getyCord()][brick.getxCord() + 1] == 0){
-                            brick.moveDown();
-                        }
-                        break;
-                    case down:
-                        while (board[brick.getyCord() - 1][brick.getxCord()] == 0 &&
-                                board[brick.getyCord() - 1][brick.getxCord() + 1] == 0 &&
-                                board[brick.getyCord()][brick.getxCord() - 1] == 0){
-                            brick.moveDown();
-                        }
-                        break;
-                    case left:
-                        while (board[brick.getyCord() ][brick.getxCord()] == 0 &&
-                                board[brick.getyCord() - 2][brick.getxCord() - 1] == 0){
-                            brick.moveDown();
-                        }
-                        break;
-                }
-            }
-            if (brick instanceof JayBrick) {
-                switch (brick.getOrientation()) {
-                    case up:
-                        while (board[brick.getyCord() - 1][brick.getxCord()] == 0 // tests center upper brick
-                                && board[brick.getyCord() - 1][brick.getxCord() - 1] == 0 // tests left upper brick
-                                && board[brick.getyCord()][brick.getxCord() + 1] == 0){
-                            brick.moveDown();
-                        }
-                        break;
-                    case right:
-                        while (board[brick.getyCord()][brick.getxCord()] == 0 &&
-                                board[brick.getyCord()][brick.getxCord() - 1] == 0){
-                            brick.moveDown();
-                        }
-                        break;
-                    case down:
-                        while (board[brick.getyCord() - 1][brick.getxCord()] == 0 &&
-                                board[brick.getyCord() - 1][brick.getxCord() + 1] == 0 &&
-                                board[brick.getyCord() - 1][brick.getxCord() - 1] == 0) {
-                            brick.moveDown();
-                        }
-                        break;
-                    case left:
-                        while (board[brick.getyCord()][brick.getxCord()] == 0 &&
-                                board[brick.getyCord() - 2][brick.getxCord() + 1] == 0) {
-                            brick.moveDown();
-                        }
-                        break;
-                }
-            }
-            if (brick instanceof LongBrick) {
-                switch (brick.getOrientation()) {
-                    case up:
-                    case down:
-                        while (board[brick.getyCord() - 1][brick.getxCord()] == 0 // tests 2nd brick
-                                && board[brick.getyCord() - 1][brick.getxCord() - 1] == 0 // tests 1st brick
-                                && board[brick.getyCord() - 1][brick.getxCord() + 1] == 0 // tests 3rd brick
-                                && board[brick.getyCord() - 1][brick.getxCord() + 2] == 0){
-                            brick.moveDown();
-                        }
-                        break;
-                    case right:
-                    case left:
-                        while (board[brick.getyCord() + 1][brick.getxCord()] == 0) {
-                            brick.moveDown();
-                        }
-                        break;
-                }
-            }
-            if (brick instanceof StackBrick) {
-                switch (brick.getOrientation()) {
-                    case up:
-                        while (board[brick.getyCord() - 1][brick.getxCord()] == 0 // tests center lower brick
-                                && board[brick.getyCord() - 1][brick.getxCord() - 1] == 0 // tests left lower brick
-                                && board[brick.getyCord() - 1][brick.getxCord() + 1] == 0) {
-                            brick.moveDown();
-                        }
-                        break;
-                    case right:
-                        while (board[brick.getyCord()][brick.getxCord()] == 0 &&
-                                board[brick.getyCord() - 1][brick.getxCord() + 1] == 0) {
-                            brick.moveDown();
-                        }
-                        break;
-                    case down:
-                        while (board[brick.getyCord()][brick.getxCord()] == 0 &&
-                                board[brick.getyCord() - 1][brick.getxCord() + 1] == 0 &&
-                                board[brick.getyCord() - 1][brick.getxCord() - 1] == 0) {
-                            brick.moveDown();
-                        }
-                        break;
-                    case left:
-                        while (board[brick.getyCord()][brick.getxCord()] == 0 &&
-                                board[brick.getyCord() - 1][brick.getxCord() - 1] == 0) {
-                            brick.moveDown();
-                        }
-                        break;
-                }
-            }
-            if (brick instanceof ZeeBrick) {
-                switch (brick.getOrientation()) {
-                    case up:
-                    case down:
-                        if (brick.getyCord() > 1) {
-                            while (board[brick.getyCord() - 1][brick.getxCord()] == 0 // tests center lower brick
-                                    && board[brick.getyCord() - 2][brick.getxCord() - 1] == 0 // tests left upper brick
-                                    && board[brick.getyCord() - 1][brick.getxCord() + 1] == 0) {
-                                brick.moveDown();
-                            }
-                        } else {
-                            while (board[brick.getyCord() - 1][brick.getxCord()] == 0 // tests center lower brick
-                                    && board[brick.getyCord() - 1][brick.getxCord() + 1] == 0) {
-                                brick.moveDown();
-                            }
-                        }
-                        break;
-                    case right:
-                    case left:
-                        while (board[brick.getyCord()][brick.getxCord()] == 0 &&
-                                board[brick.getyCord() - 1][brick.getxCord() + 1] == 0) {
-                            brick.moveDown();
-                        }
-                        break;
-                }
-            }
-            if (brick instanceof SquareBrick) {
-                while (board[brick.getyCord() - 1][brick.getxCord()] == 0 // tests left lower brick
-                        && board[brick.getyCord() - 1][brick.getxCord() + 1] == 0) {
-                    brick.moveDown();
-                }
-            }
-            if (brick instanceof EssBrick) {
-                switch (brick.getOrientation()) {
-                    case up:
-                    case down:
-                        if (brick.getyCord() > 1) {
-                            while (board[brick.getyCord() - 1][brick.getxCord()] == 0 // tests center lower brick
-                                    && board[brick.getyCord() - 1][brick.getxCord() - 1] == 0 // tests left lower brick
-                                    && board[brick.getyCord() - 2][brick.getxCord() + 1] == 0) {
-                                brick.moveDown();
-                            }
-                        } else {
-                            while (board[brick.getyCord() - 1][brick.getxCord()] == 0 // tests center lower brick
-                                    && board[brick.getyCord() - 1][brick.getxCord() - 1] == 0) {
-                                brick.moveDown();
-                            }
-                        }
-                        break;
-                    case right:
-                    case left:
-                        while (board[brick.getyCord() - 1][brick.getxCord()] == 0 &&
-                                board[brick.getyCord()][brick.getxCord() + 1] == 0) {
-                            brick.moveDown();
-                        }
-                        break;
-                }
-            }
-            
-        } catch (ArrayIndexOutOfBoundsException aie) {
-
-        }
+        brick.alignWith(currentPlace, getGhostRow() - currentPlace.getRow());
     }
 
     // Generates 1 active brick from predetermined series of 7 bricks
-    public void generateRandomBrick(int y_cord, int x_cord, int size) throws CloneNotSupportedException {
+    public void generateRandomBrick() {
+        dealUpTo(previewDepth + 1);
         if (state == 0) {
-            for (int counter = 0; counter < amtStartBrick; counter++) {
-                brickQueue.add(pickBrick(y_cord, x_cord, size));
-            }
-            currentPlace = brickQueue.poll();
-            phantomBrick = currentPlace.clone();
+            currentPlace = new TetrisBrick(brickQueue.poll(), spawnCol, spawnRow);
+            phantomBrick = new TetrisBrick(currentPlace.getType(), spawnCol, spawnRow);
             state = 1;
         } else {
-            currentPlace = brickQueue.poll();
-            phantomBrick = currentPlace.clone();
-            brickQueue.add(pickBrick(y_cord, x_cord, size));
+            currentPlace.spawn(brickQueue.poll(), spawnCol, spawnRow);
         }
+        invalidateGhost();
     }
 
-    public TetrisBrick pickBrick(int y_cord, int x_cord, int size) {
-        Random rand = new Random();
-        int nextBrick = rand.nextInt(amtBricks);
-        switch (nextBrick) {
-            case 0:
-                return new EssBrick(x_cord + (size * 2), y_cord, size, 0);
-            case 1:
-                return new ElBrick(x_cord + (size * 2), y_cord, size, 0);
-            case 2:
-                return new JayBrick(x_cord + (size * 2), y_cord, size, 0);
-            case 3:
-                return new LongBrick(x_cord + (size * 2), y_cord, size, 0);
-            case 4:
-                return new SquareBrick(x_cord + (size * 2), y_cord, size, 0);
-            case 5:
-                return new ZeeBrick(x_cord + (size * 2), y_cord, size, 0);
-            default:
-                return new StackBrick(x_cord + (size * 2), y_cord, size, 0);
+    // Deals bricks until the queue holds the given amount
+    private void dealUpTo(int amount) {
+        while (brickQueue.size() < amount) {
+            brickQueue.add(pickBrick());
         }
     }
 
-    public void gameOverAskName() {
-        String playerName = JOptionPane.showInputDialog(null,"GAME OVER\n" + "You scored: " + score + "\nPlease enter name" +
-                " for the Leader Board", "GAME OVER", 2);
-        gameOverWrite(playerName);
+    // Type of the next brick to join the queue
+    public int pickBrick() {
+        return randomizer.next();
     }
 
-    public void gameOverWrite(String userName) {
-        String fileName = "highscores.txt";
-        File myFile = new File(fileName);
+    // Returns false when there is no save to load, the caller decides how to report it
+    // Saves from before the binary format are still read once, they only hold the board and the counters
+    public boolean loadGame() {
         try {
-            // Tests if user did not input anything, or only inputted spaces
-            if (!userName.trim().isEmpty()) {
-                BufferedWriter myWriter = new BufferedWriter(new FileWriter(myFile, true));
-                myWriter.write(score + ":" + userName);
-                myWriter.newLine();
-                myWriter.close();
-            }
-        } catch (NullPointerException | IOException e) {
+            TetrisSaveFile.load(this, Paths.get(TetrisSaveFile.SAVE_FILE));
+        } catch (NoSuchFileException e) {
+            return loadLegacyGame();
+        } catch (IOException ioe) {
+            return false;
         }
-        System.exit(0);
+        return true;
     }
 
-    public void saveGame() {
+    private boolean loadLegacyGame() {
         String fileName = "lastsave.csv";
         File myFile = new File(fileName);
+
         try {
-            BufferedWriter saveWriter = new BufferedWriter(new FileWriter(myFile, false));
-            saveWriter.write(score + ",");
-            saveWriter.write(level + ",");
-            saveWriter.write(speed + ",");
-            saveWriter.write(arcLength + ",");
-            for (int row = 0; row < board.length; row++) {
-                for (int col = 0; col < board[0].length; col++) {
-                    saveWriter.write(board[row][col] + ",");
+            Scanner loadScanner = new Scanner(myFile);
+            loadScanner.useDelimiter(",");
+
+            score = Integer.parseInt(loadScanner.next());
+            level = Integer.parseInt(loadScanner.next());
+            fallSpeed = Integer.parseInt(loadScanner.next());
+            arcLength = Integer.parseInt(loadScanner.next());
+
+            for (int row = 0; row < board.getRows(); row++) {
+                for (int col = 0; col < board.getCols(); col++) {
+                    board.set(row, col, Integer.parseInt(loadScanner.next()));
                 }
             }
-            saveWriter.close();
-            System.exit(0);
+            loadScanner.close();
         } catch (IOException ioe) {
+            return false;
         }
+        return true;
     }
 
-    public void loadGame() {
-        String fileName = "lastsave.csv";
-        File myFile = new File(fileName);
+    // Bytes writeSnapshot() needs at most for the game as it is now
+    public int getSnapshotSize() {
+        int counters = 2 * 2 + 9 * 4 + 1;
+        int random = 1 + randomizer.getName().length() + 2 * 8;
+        int bricks = 4 + 2 + brickQueue.size();
+        return counters + random + bricks + (board.getRows() * board.getCols() + 1) / 2;
+    }
+
+    // Writes everything needed to carry on this game later: counters, randomizer position, active brick,
+    // queued bricks and the board, packed two cells per byte
+    public void writeSnapshot(ByteBuffer buffer) {
+        buffer.putShort((short) board.getRows());
+        buffer.putShort((short) board.getCols());
+        buffer.putInt(score);
+        buffer.putInt(level);
+        buffer.putInt(fallSpeed);
+        buffer.putInt(arcLength);
+        buffer.putInt(speedCounter);
+        buffer.putInt(amtLine);
+        buffer.putInt(piecesPlaced);
+        buffer.putInt(linesCleared);
+        buffer.putInt(ticks);
+        buffer.put((byte) previewDepth);
+
+        byte[] name = randomizer.getName().getBytes(StandardCharsets.US_ASCII);
+        buffer.put((byte) name.length);
+        buffer.put(name);
+        buffer.putLong(randomizer.getSeed());
+        buffer.putLong(randomizer.getDraws());
+
+        buffer.put((byte) currentPlace.getType());
+        buffer.put((byte) currentPlace.getCol());
+        buffer.put((byte) currentPlace.getRow());
+        buffer.put((byte) currentPlace.getOrientation());
+        buffer.putShort((short) brickQueue.size());
+        for (int index = 0; index < brickQueue.size(); index++) {
+            buffer.put((byte) brickQueue.peek(index));
+        }
 
-        ArrayList<Integer> bricks = new ArrayList<Integer>();
+        int cells = board.getRows() * board.getCols();
+        for (int cell = 0; cell < cells; cell += 2) {
+            int low = board.getColor(cell / board.getCols(), cell % board.getCols());
+            int high = cell + 1 < cells ? board.getColor((cell + 1) / board.getCols(), (cell + 1) % board.getCols()) : 0;
+            buffer.put((byte) (low | high << 4));
+        }
+    }
 
-        if (!myFile.exists()) {
-            JOptionPane.showMessageDialog(null, "Error, File not found\n make sure it is spelled " +
-                    "exactly:\nlastsave.csv", "File Error", 2);
+    // Restores a snapshot written by writeSnapshot(), the game does not need startGame() afterwards
+    // Everything is decoded and checked before the game is touched, so a rejected snapshot leaves the game as it was
+    public void readSnapshot(ByteBuffer buffer) throws IOException {
+        requireBytes(buffer, 2 * 2 + 9 * 4 + 1 + 1);
+        int rows = buffer.getShort();
+        int cols = buffer.getShort();
+        if (rows != board.getRows() || cols != board.getCols()) {
+            throw new IOException("Save is for a " + rows + "x" + cols + " board");
+        }
+        int savedScore = buffer.getInt();
+        int savedLevel = buffer.getInt();
+        int savedFallSpeed = buffer.getInt();
+        int savedArcLength = buffer.getInt();
+        int savedSpeedCounter = buffer.getInt();
+        int savedAmtLine = buffer.getInt();
+        int savedPiecesPlaced = buffer.getInt();
+        int savedLinesCleared = buffer.getInt();
+        int savedTicks = buffer.getInt();
+        int savedPreviewDepth = buffer.get();
+        if (savedPreviewDepth < 1 || savedPreviewDepth > maxPreviewDepth || savedFallSpeed < 0
+                || savedPiecesPlaced < 0 || savedTicks < 0) {
+            throw new IOException("Save holds invalid counters");
         }
 
+        byte[] name = new byte[buffer.get() & 0xff];
+        requireBytes(buffer, name.length + 2 * 8 + 4 + 2);
+        buffer.get(name);
+        long seed = buffer.getLong();
+        long draws = buffer.getLong();
+        TetrisRandomizer savedRandomizer;
         try {
-            Scanner loadScanner = new Scanner(myFile);
-            loadScanner.useDelimiter(",");
+            savedRandomizer = TetrisRandomizer.create(new String(name, StandardCharsets.US_ASCII), seed);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Save holds an unknown randomizer", e);
+        }
 
-            score = Integer.parseInt(loadScanner.next());
-            level = Integer.parseInt(loadScanner.next());
-            speed = Integer.parseInt(loadScanner.next());
-            arcLength = Integer.parseInt(loadScanner.next());
+        int type = buffer.get();
+        int col = buffer.get();
+        int row = buffer.get();
+        int orientation = buffer.get();
+        if (!isBrickType(type) || orientation < 0 || orientation >= TetrisShapes.AMT_ROTATIONS) {
+            throw new IOException("Save holds an invalid brick");
+        }
 
-            for (int row = 0; row < board.length; row++) {
-                for (int col = 0; col < board[0].length; col++) {
-                    board[row][col] = Integer.parseInt(loadScanner.next());
-                }
+        int queued = buffer.getShort();
+        if (queued < 0 || queued > buffer.remaining()) {
+            throw new IOException("Save holds an invalid brick queue");
+        }
+        int[] queuedTypes = new int[queued];
+        for (int index = 0; index < queued; index++) {
+            queuedTypes[index] = buffer.get();
+            if (!isBrickType(queuedTypes[index])) {
+                throw new IOException("Save holds an invalid brick");
             }
+        }
+        // Every brick dealt so far is placed, active or queued, so the draws can not be more than those
+        if (draws < 0 || draws > (long) savedPiecesPlaced + queued + 1) {
+            throw new IOException("Save holds an invalid brick sequence");
+        }
 
-        } catch (IOException ioe) {
-            JOptionPane.showMessageDialog(null, "Error, File not found\n make sure it is spelled " +
-                    "exactly:\nlastsave.csv", "File Error", 2);
+        int cells = rows * cols;
+        requireBytes(buffer, (cells + 1) / 2);
+        TetrisBoard savedBoard = new TetrisBoard(rows, cols);
+        int maxColor = TetrisShapes.getBoardColor(TetrisShapes.AMT_TYPES - 1);
+        for (int cell = 0; cell < cells; cell += 2) {
+            int packed = buffer.get();
+            int low = packed & 0xf;
+            int high = (packed >> 4) & 0xf;
+            if (low > maxColor || high > maxColor) {
+                throw new IOException("Save holds an invalid board");
+            }
+            savedBoard.set(cell / cols, cell % cols, low);
+            if (cell + 1 < cells) {
+                savedBoard.set((cell + 1) / cols, (cell + 1) % cols, high);
+            }
+        }
+        if (!savedBoard.contains(type, orientation, row, col) || !savedBoard.fits(type, orientation, row, col)) {
+            throw new IOException("Save holds a brick that does not fit the board");
+        }
+
+        // The snapshot checks out, the game takes it over
+        score = savedScore;
+        level = savedLevel;
+        fallSpeed = savedFallSpeed;
+        arcLength = savedArcLength;
+        speedCounter = savedSpeedCounter;
+        amtLine = savedAmtLine;
+        piecesPlaced = savedPiecesPlaced;
+        linesCleared = savedLinesCleared;
+        ticks = savedTicks;
+        previewDepth = savedPreviewDepth;
+        randomizer = savedRandomizer;
+        randomizer.skip(draws);
+
+        if (currentPlace == null) {
+            currentPlace = new TetrisBrick(type, col, row);
+            phantomBrick = new TetrisBrick(type, col, row);
+        }
+        currentPlace.place(type, col, row, orientation);
+        state = 1;
+
+        brickQueue.clear();
+        for (int queuedType : queuedTypes) {
+            brickQueue.add(queuedType);
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            board.set(cell / cols, cell % cols, savedBoard.getColor(cell / cols, cell % cols));
+        }
+        gameOver = false;
+        invalidateGhost();
+    }
+
+    // Refuses a snapshot that ends before the next part of it, instead of letting the reads underflow
+    private static void requireBytes(ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            throw new IOException("Save is truncated");
         }
     }
+
+    private boolean isBrickType(int type) {
+        return type >= 0 && type < TetrisShapes.AMT_TYPES;
+    }
     //
     // Setters and Getters
     //
@@ -1293,59 +500,91 @@ public class TetrisGame {
     }
 
     public int fetchRows() {
-        return board.length;
+        return board.getRows();
     }
 
     public int fetchCols() {
-        return board[0].length;
+        return board.getCols();
     }
 
     public int getScore() {
         return score;
     }
 
-    public void setLevel(int level) {
-        this.level = level;
+    public int getLevel() {
+        return level;
     }
 
-    public void setArc(int arc) {
-        arcLength = arc;
+    public int getArc() {
+        return arcLength;
     }
 
-    public void setFallSpeed(int speed) {
-        this.speed = speed;
+    public int getFallSpeed() {
+        return fallSpeed;
     }
 
-    public int getLevel() {
-        return level;
+    public int getPiecesPlaced() {
+        return piecesPlaced;
     }
 
-    public int getArc() {
-        return arcLength;
+    public int getLinesCleared() {
+        return linesCleared;
     }
 
-    public int getFallSpeed() {
-        return speed;
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public TetrisBoard getBoard() {
+        return board;
     }
 
     public TetrisBrick getPhantomBrick() {
+        if (!phantomValid) {
+            movePhantom(phantomBrick);
+            phantomValid = true;
+        }
         return phantomBrick;
     }
 
-    public int getAmtLine() {
-        return amtLine;
+    // Type of the brick the given amount of places back in the queue, the queue is dealt further ahead as needed
+    public int getQueue(int index) {
+        dealUpTo(index + 1);
+        return brickQueue.peek(index);
     }
 
-    public void setAmtLine(int amt) {
-        amtLine = amt;
+    public int getTicks() {
+        return ticks;
     }
 
-    public TetrisBrick getQueue(int index) {
-        return (TetrisBrick) brickQueue.toArray()[index];
+    public void setRecorder(TetrisReplay recorder) {
+        this.recorder = recorder;
     }
 
-    public TetrisBrick getActiveBrick() {
-        return currentPlace;
+    public int getPreviewDepth() {
+        return previewDepth;
+    }
+
+    // Between 1 and 7 upcoming bricks can be shown
+    public void setPreviewDepth(int depth) {
+        if (depth < 1 || depth > maxPreviewDepth) {
+            throw new IllegalArgumentException("Preview depth must be between 1 and " + maxPreviewDepth);
+        }
+        previewDepth = depth;
+        dealUpTo(previewDepth);
+    }
+
+    public TetrisRandomizer getRandomizer() {
+        return randomizer;
+    }
+
+    // Board cell every new brick's center starts on
+    public int getSpawnCol() {
+        return spawnCol;
+    }
+
+    public int getSpawnRow() {
+        return spawnRow;
     }
 
 }
@@ -0,0 +1,311 @@
+// Leaderboard kept as an append-only binary log plus a small table of the best scores at the front of the file
+// Opening the leaderboard only reads the header and that table, however many games have been logged
+// The best scores are kept in a bounded min-heap ordered by score, so adding a game never sorts anything
+// Once the log grows past a limit it is compacted down to the scores that can still make the table
+//
+// File layout:
+//   header: magic (4 bytes), version (2 bytes), table capacity (2 bytes), scores in table (4 bytes),
+//           records in log (4 bytes), end of log (8 bytes), CRC32 of the table (4 bytes)
+//   table: capacity entries of score (4 bytes), name length (1 byte), name (UTF-8, padded)
+//   log: one record per game, score (4 bytes), name length (1 byte), name
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.zip.CRC32;
+
+public class TetrisHighScores {
+    public static final String SCORES_FILE = "highscores.tsl";
+    public static final String LEGACY_SCORES_FILE = "highscores.txt";
+    public static final int TOP_SCORES = 10;
+    public static final int MAX_NAME_BYTES = 31;
+
+    private static final int MAGIC = 0x5448534c; // "THSL"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 28;
+    private static final int ENTRY_SIZE = 4 + 1 + MAX_NAME_BYTES;
+
+    // The log is compacted once it holds this many records per table entry
+    private final int compactRatio = 64;
+
+    // One leaderboard entry, higher scores first and the earlier game first on a tie
+    public static class Entry implements Comparable<Entry> {
+        public final int score;
+        public final String name;
+        private final long order;
+
+        public Entry(int score, String name, long order) {
+            this.score = score;
+            this.name = name;
+            this.order = order;
+        }
+
+        public int compareTo(Entry other) {
+            if (score != other.score) {
+                return Integer.compare(other.score, score);
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+
+    private final Path path;
+    private final int capacity;
+    private FileChannel channel;
+
+    // Worst entry on top, so a new score only has to beat the head to get in
+    private final PriorityQueue<Entry> best;
+    private int logRecords;
+    private long logEnd;
+
+    private TetrisHighScores(Path path, int capacity) {
+        this.path = path;
+        this.capacity = capacity;
+        this.best = new PriorityQueue<Entry>(capacity, Collections.reverseOrder());
+    }
+
+    // Opens the leaderboard, creating it (and importing a legacy highscores.txt next to it) when it does not exist
+    public static TetrisHighScores open(Path path, int capacity) throws IOException {
+        return open(path, capacity, true);
+    }
+
+    private static TetrisHighScores open(Path path, int capacity, boolean importLegacy) throws IOException {
+        TetrisHighScores scores = new TetrisHighScores(path, capacity);
+        boolean created = !Files.exists(path);
+        scores.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (created || scores.channel.size() == 0) {
+                scores.logEnd = HEADER_SIZE + (long) capacity * ENTRY_SIZE;
+                scores.writeTable();
+                Path legacy = path.resolveSibling(LEGACY_SCORES_FILE);
+                if (created && importLegacy && Files.exists(legacy)) {
+                    scores.importLegacy(legacy);
+                }
+            } else {
+                scores.readTable();
+            }
+        } catch (IOException | RuntimeException e) {
+            scores.channel.close();
+            throw e;
+        }
+        return scores;
+    }
+
+    private void readTable() throws IOException {
+        ByteBuffer header = read(0, HEADER_SIZE);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a leaderboard");
+        }
+        if (header.getShort(4) != VERSION) {
+            throw new IOException("Unsupported leaderboard version " + header.getShort(4));
+        }
+        if (header.getShort(6) != capacity) {
+            throw new IOException("Leaderboard holds " + header.getShort(6) + " scores, not " + capacity);
+        }
+        int count = header.getInt(8);
+        logRecords = header.getInt(12);
+        logEnd = header.getLong(16);
+
+        ByteBuffer table = read(HEADER_SIZE, capacity * ENTRY_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(table.duplicate());
+        if (count < 0 || count > capacity || header.getInt(24) != (int) crc.getValue()) {
+            // The table is only a cache of the log, rebuild it when it cannot be trusted
+            rebuild();
+            return;
+        }
+        for (int index = 0; index < count; index++) {
+            table.position(index * ENTRY_SIZE);
+            int score = table.getInt();
+            byte[] name = new byte[table.get() & 0xff];
+            table.get(name);
+            best.add(new Entry(score, new String(name, StandardCharsets.UTF_8), index));
+        }
+    }
+
+    // Reads the whole log back into the table, only needed when the table was damaged
+    private void rebuild() throws IOException {
+        best.clear();
+        long end = Math.min(logEnd, channel.size());
+        long position = HEADER_SIZE + (long) capacity * ENTRY_SIZE;
+        int records = 0;
+        while (position + 5 <= end) {
+            ByteBuffer head = read(position, 5);
+            int score = head.getInt(0);
+            int length = head.get(4) & 0xff;
+            if (length > MAX_NAME_BYTES || position + 5 + length > end) {
+                break;
+            }
+            ByteBuffer name = read(position + 5, length);
+            offer(new Entry(score, StandardCharsets.UTF_8.decode(name).toString(), records));
+            position += 5 + length;
+            records++;
+        }
+        logRecords = records;
+        logEnd = position;
+        writeTable();
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException(path + " is truncated");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private void offer(Entry entry) {
+        if (best.size() < capacity) {
+            best.add(entry);
+        } else if (entry.compareTo(best.peek()) < 0) {
+            best.poll();
+            best.add(entry);
+        }
+    }
+
+    // Logs a finished game, blank names are not recorded
+    public synchronized void add(int score, String name) throws IOException {
+        if (append(score, name)) {
+            writeTable();
+            channel.force(false);
+        }
+    }
+
+    // Appends a record to the log and offers it to the table, the header and table are left to the caller
+    private boolean append(int score, String name) throws IOException {
+        if (name == null || name.trim().isEmpty()) {
+            return false;
+        }
+        if (logRecords >= capacity * compactRatio) {
+            compact();
+        }
+        byte[] nameBytes = encodeName(name.trim());
+        ByteBuffer record = ByteBuffer.allocate(5 + nameBytes.length);
+        record.putInt(score).put((byte) nameBytes.length).put(nameBytes).flip();
+        write(record, logEnd);
+        logEnd += record.limit();
+        logRecords++;
+
+        offer(new Entry(score, new String(nameBytes, StandardCharsets.UTF_8), logRecords));
+        return true;
+    }
+
+    // Names are cut to MAX_NAME_BYTES without splitting a character
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int end = name.length();
+        while (bytes.length > MAX_NAME_BYTES) {
+            end--;
+            if (Character.isLowSurrogate(name.charAt(end)) && end > 0) {
+                end--;
+            }
+            bytes = name.substring(0, end).getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    // Best scores, best first
+    public synchronized List<Entry> getTop() {
+        ArrayList<Entry> top = new ArrayList<Entry>(best);
+        Collections.sort(top);
+        return top;
+    }
+
+    // Amount of games logged since the last compaction
+    public synchronized int getLogRecords() {
+        return logRecords;
+    }
+
+    // Rewrites the file with only the scores in the table, the rename makes it all or nothing
+    public synchronized void compact() throws IOException {
+        List<Entry> top = getTop();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        TetrisHighScores compacted = open(temp, capacity, false);
+        for (Entry entry : top) {
+            compacted.append(entry.score, entry.name);
+        }
+        compacted.writeTable();
+        compacted.channel.force(false);
+        compacted.close();
+
+        channel.close();
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        best.clear();
+        readTable();
+    }
+
+    // Forgets every score
+    public synchronized void reset() throws IOException {
+        best.clear();
+        logRecords = 0;
+        logEnd = HEADER_SIZE + (long) capacity * ENTRY_SIZE;
+        channel.truncate(logEnd);
+        writeTable();
+        channel.force(false);
+    }
+
+    // Adds every "score:name" line of an old highscores.txt, lines that do not parse are skipped
+    public synchronized void importLegacy(Path legacy) throws IOException {
+        for (String line : Files.readAllLines(legacy, StandardCharsets.UTF_8)) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            try {
+                append(Integer.parseInt(line.substring(0, colon).trim()), line.substring(colon + 1).trim());
+            } catch (NumberFormatException e) {
+            }
+        }
+        writeTable();
+        channel.force(false);
+    }
+
+    // Writes the table and the header that points at the end of the log
+    private void writeTable() throws IOException {
+        ByteBuffer table = ByteBuffer.allocate(capacity * ENTRY_SIZE);
+        List<Entry> top = getTop();
+        for (int index = 0; index < top.size(); index++) {
+            byte[] name = top.get(index).name.getBytes(StandardCharsets.UTF_8);
+            table.position(index * ENTRY_SIZE);
+            table.putInt(top.get(index).score).put((byte) name.length).put(name);
+        }
+        table.clear();
+        CRC32 crc = new CRC32();
+        crc.update(table.duplicate());
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) capacity).putInt(top.size())
+                .putInt(logRecords).putLong(logEnd).putInt((int) crc.getValue()).flip();
+        write(table, HEADER_SIZE);
+        write(header, 0);
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
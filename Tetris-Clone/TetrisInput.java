@@ -0,0 +1,11 @@
+// The moves a player (or a script) can make during a single game tick
+// TetrisDisplay translates key presses into these before handing them to TetrisGame
+
+public enum TetrisInput {
+    NONE,
+    LEFT,
+    RIGHT,
+    ROTATE,
+    SOFT_DROP,
+    HARD_DROP
+}
@@ -0,0 +1,93 @@
+// Lock-free ring buffer carrying timestamped inputs from the Swing thread to the game loop thread
+// Only one thread may offer() and only one thread may poll(), inputs are stored as primitives so nothing is boxed
+// Also measures how long inputs wait between the key press and the tick that applies them
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TetrisInputQueue {
+    private final TetrisInput[] inputTypes = TetrisInput.values();
+
+    private final int capacity;
+    private final int mask;
+    private final int[] inputs;
+    private final long[] times;
+
+    // head is only written by the consumer, tail only by the producer
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // Last polled entry, only read by the consumer
+    private TetrisInput polledInput;
+    private long polledTime;
+
+    // Input to move latency, only written by the consumer
+    private long latencyCount;
+    private long latencyTotal;
+    private long latencyMax;
+
+    // Capacity is rounded up to a power of two
+    public TetrisInputQueue(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.inputs = new int[this.capacity];
+        this.times = new long[this.capacity];
+    }
+
+    // Producer side, returns false and drops the input when the queue is full
+    public boolean offer(TetrisInput input, long time) {
+        long currentTail = tail.get();
+        if (currentTail - head.get() >= capacity) {
+            return false;
+        }
+        int index = (int) currentTail & mask;
+        inputs[index] = input.ordinal();
+        times[index] = time;
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    // Consumer side, moves the oldest input into getPolledInput()/getPolledTime()
+    public boolean poll() {
+        long currentHead = head.get();
+        if (currentHead == tail.get()) {
+            return false;
+        }
+        int index = (int) currentHead & mask;
+        polledInput = inputTypes[inputs[index]];
+        polledTime = times[index];
+        head.lazySet(currentHead + 1);
+        return true;
+    }
+
+    public TetrisInput getPolledInput() {
+        return polledInput;
+    }
+
+    public long getPolledTime() {
+        return polledTime;
+    }
+
+    // Records the latency of the last polled input once it has been applied at the given time
+    public void recordApplied(long time) {
+        long latency = time - polledTime;
+        latencyCount++;
+        latencyTotal += latency;
+        latencyMax = Math.max(latencyMax, latency);
+    }
+
+    public long getLatencyCount() {
+        return latencyCount;
+    }
+
+    public double getAverageLatencyNanos() {
+        return latencyCount == 0 ? 0 : (double) latencyTotal / latencyCount;
+    }
+
+    public long getMaxLatencyNanos() {
+        return latencyMax;
+    }
+
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+}
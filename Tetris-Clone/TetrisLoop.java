@@ -0,0 +1,67 @@
+// Fixed timestep game loop running on its own thread
+// The simulation always advances in ticks of the same length, however fast or slow frames are drawn
+// Late ticks are caught up (up to a limit) from an accumulator, then the display is asked to repaint what changed
+
+import java.util.concurrent.locks.LockSupport;
+
+public class TetrisLoop implements Runnable {
+    private final long tickNanos = 1_000_000_000L / TetrisGame.TICKS_PER_SECOND;
+
+    // Never simulate more than this many ticks in one go, so a long stall does not freeze the game catching up
+    private final int maxCatchUp = 5;
+
+    private final TetrisGame game;
+    private final TetrisDisplay display;
+
+    private volatile boolean running = false;
+    private volatile boolean paused = false;
+    private Thread thread;
+
+    public TetrisLoop(TetrisGame game, TetrisDisplay display) {
+        this.game = game;
+        this.display = display;
+    }
+
+    public void start() {
+        running = true;
+        thread = new Thread(this, "Tetris game loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    // While paused no ticks run, and no catch-up is owed for the paused time afterwards
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+
+        while (running) {
+            long now = System.nanoTime();
+            accumulator = paused ? 0 : Math.min(accumulator + now - previous, maxCatchUp * tickNanos);
+            previous = now;
+
+            synchronized (game) {
+                while (accumulator >= tickNanos) {
+                    display.tick();
+                    accumulator -= tickNanos;
+                }
+                display.repaintDirty();
+            }
+
+            if (game.isGameOver()) {
+                running = false;
+                display.gameOver();
+                return;
+            }
+
+            LockSupport.parkNanos(tickNanos - accumulator);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+// Runs every file read and write on one background thread, so the Swing thread and the game loop never wait on a disk
+// Work is queued in order and handed back as a CompletableFuture
+// A write with the same key as one still waiting replaces it, only the newest state of a save is worth writing
+// Whatever is queued when the program exits is written before it goes
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+public class TetrisPersistence implements Runnable {
+
+    // A write to run on the persistence thread
+    public interface Write {
+        void run() throws IOException;
+    }
+
+    private static class Task {
+        final String key;
+        Callable<?> work;
+        final CompletableFuture<Object> future = new CompletableFuture<Object>();
+
+        Task(String key, Callable<?> work) {
+            this.key = key;
+            this.work = work;
+        }
+    }
+
+    // Guarded by this
+    private final ArrayDeque<Task> pending = new ArrayDeque<Task>();
+    private final HashMap<String, Task> pendingByKey = new HashMap<String, Task>();
+    private boolean closed = false;
+
+    private final Thread thread;
+
+    public TetrisPersistence() {
+        thread = new Thread(this, "Tetris persistence");
+        thread.setDaemon(true);
+    }
+
+    // Starts the persistence thread and makes sure it finishes its queue when the program exits
+    public void start() {
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "Tetris persistence flush"));
+    }
+
+    // Queues a write, a waiting write with the same key is replaced and both callers get this write's result
+    // A null key is never coalesced
+    public CompletableFuture<Void> write(String key, Write write) {
+        Callable<Void> work = () -> {
+            write.run();
+            return null;
+        };
+        return submit(key, work).thenApply(result -> null);
+    }
+
+    // Queues a read, its result comes back in the future
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> read(Callable<T> read) {
+        return (CompletableFuture<T>) (CompletableFuture<?>) submit(null, read);
+    }
+
+    // Completes once everything queued before it has run
+    public CompletableFuture<Void> flush() {
+        return write(null, () -> {
+        });
+    }
+
+    private synchronized CompletableFuture<Object> submit(String key, Callable<?> work) {
+        if (closed) {
+            CompletableFuture<Object> refused = new CompletableFuture<Object>();
+            refused.completeExceptionally(new IOException("Persistence has been shut down"));
+            return refused;
+        }
+        Task waiting = key == null ? null : pendingByKey.get(key);
+        if (waiting != null) {
+            waiting.work = work;
+            return waiting.future;
+        }
+        Task task = new Task(key, work);
+        pending.add(task);
+        if (key != null) {
+            pendingByKey.put(key, task);
+        }
+        notifyAll();
+        return task.future;
+    }
+
+    public void run() {
+        ArrayList<Task> batch = new ArrayList<Task>();
+        while (true) {
+            synchronized (this) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                // Everything queued so far runs as one batch, later writes with the same key start a new task
+                batch.addAll(pending);
+                pending.clear();
+                pendingByKey.clear();
+            }
+            for (Task task : batch) {
+                try {
+                    task.future.complete(task.work.call());
+                } catch (Exception e) {
+                    task.future.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    // Stops taking work and waits for the queued work to finish
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        if (thread.isAlive() && Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
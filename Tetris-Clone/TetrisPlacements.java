@@ -0,0 +1,274 @@
+// Finds every spot a brick can come to rest in from where it is now, each with the shortest inputs that get it there
+// A breadth-first search over (rotation, row, col) states using the game's own moves: sliding left or right,
+// rotating in place and falling one row, each only where the brick fits. Every state reached is also hard dropped,
+// so tucks under overhangs and rotations deep in the stack are found along with the plain drops
+//
+// While every rotation of the brick would still be in the empty rows above the stack, the order of its moves does not
+// matter. The brick only slides and turns on its starting row, then falls straight to the last of those empty rows
+// in one step that costs a fall per row. Those falls all cost the same, so the states they reach are kept in a
+// queue of their own, already in order of distance, and the two queues are merged as the search goes
+//
+// Paths are made of LEFT, RIGHT, ROTATE and HARD_DROP, plus SOFT_DROP standing for the brick falling one row
+// (by soft dropping or by waiting for gravity)
+//
+// Collisions are tested with TetrisBoard's framed fits(), on a copy of the playfield's row words in a frame of its own.
+// Everything the search needs is allocated once for the board size, so a search allocates nothing.
+// The results stay valid until the next search
+
+import java.util.Arrays;
+
+public class TetrisPlacements {
+    private final int rows;
+    private final int cols;
+
+    // The frame around the playfield is TetrisBoard's, see TetrisBoard.frame()
+    private final int padding = TetrisBoard.PADDING;
+    private final int wallBits;
+    private final int[] words;
+
+    // Every (rotation, row, col) the brick's center can be in has an index, see state()
+    private final int stateRows;
+    private final int stateCols;
+    private final int states;
+
+    private final long[] visited;
+    private final long[] landed;
+    private final int[] queue;
+    private final int[] fallen;
+    private final int[] parent;
+    private final byte[] moves;
+    private final int[] distances;
+
+    // Row each state lands on when dropped, valid when its stamp matches the current search
+    private final int[] dropRows;
+    private final int[] dropStamps;
+    private int stamp = 0;
+
+    private final TetrisInput[] inputs = TetrisInput.values();
+
+    // Resting states found, and the state each one is hard dropped from
+    private final int[] landings;
+    private final int[] droppedFrom;
+    private int count;
+
+    // Lowest a cell of any brick reaches below the brick's center
+    private final int reach;
+
+    private int type;
+
+    public TetrisPlacements(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.wallBits = TetrisBoard.emptyRow(cols);
+        this.words = TetrisBoard.frame(rows, cols);
+
+        this.stateRows = rows + 2 * padding;
+        this.stateCols = cols + 2 * padding;
+        this.states = TetrisShapes.AMT_ROTATIONS * stateRows * stateCols;
+        this.visited = new long[(states + 63) / 64];
+        this.landed = new long[(states + 63) / 64];
+        this.queue = new int[states];
+        this.fallen = new int[states];
+        this.parent = new int[states];
+        this.moves = new byte[states];
+        this.distances = new int[states];
+        this.dropRows = new int[states];
+        this.dropStamps = new int[states];
+        this.landings = new int[states];
+        this.droppedFrom = new int[states];
+
+        int lowest = 0;
+        for (int type = 0; type < TetrisShapes.AMT_TYPES; type++) {
+            for (int rotation = 0; rotation < TetrisShapes.AMT_ROTATIONS; rotation++) {
+                lowest = Math.max(lowest, TetrisShapes.getMinY(type, rotation)
+                        + TetrisShapes.getHeight(type, rotation) - 1);
+            }
+        }
+        this.reach = lowest;
+    }
+
+    // Searches from the brick at (row, col) in the given rotation on a playfield given as row words (bit N is
+    // column N), returns the amount of resting spots found, 0 when the brick does not fit where it is
+    public int generate(int[] board, int type, int rotation, int row, int col) {
+        for (int boardRow = 0; boardRow < rows; boardRow++) {
+            words[boardRow + padding] = board[boardRow] << padding | wallBits;
+        }
+        return search(type, rotation, row, col);
+    }
+
+    private int search(int type, int rotation, int row, int col) {
+        this.type = type;
+        count = 0;
+        stamp++;
+        Arrays.fill(visited, 0);
+        Arrays.fill(landed, 0);
+        if (row + TetrisShapes.getMinY(type, rotation) < -padding || !fits(rotation, row, col)) {
+            return 0;
+        }
+
+        // First playfield row holding a cell, every row above it is empty
+        int surface = 0;
+        while (surface < rows && words[surface + padding] == wallBits) {
+            surface++;
+        }
+
+        // Last row where the brick is in empty rows whichever way it is turned
+        int open = surface - reach - 1;
+
+        int head = 0;
+        int tail = 0;
+        int fallenHead = 0;
+        int fallenTail = 0;
+        int start = state(rotation, row, col);
+        mark(visited, start);
+        parent[start] = -1;
+        distances[start] = 0;
+        queue[tail++] = start;
+        while (head < tail || fallenHead < fallenTail) {
+            int current;
+            if (fallenHead < fallenTail && (head == tail || distances[fallen[fallenHead]] <= distances[queue[head]])) {
+                current = fallen[fallenHead++];
+            } else {
+                current = queue[head++];
+            }
+            int currentRotation = rotationOf(current);
+            int currentRow = rowOf(current);
+            int currentCol = colOf(current);
+
+            // States are taken in order of distance, so the first state to drop onto a spot has its shortest path
+            int landing = state(currentRotation, dropRow(currentRotation, currentRow, currentCol), currentCol);
+            if (!isMarked(landed, landing)) {
+                mark(landed, landing);
+                landings[count] = landing;
+                droppedFrom[count] = current;
+                count++;
+            }
+
+            if (currentRow == row || currentRow > open) {
+                tail = visit(current, currentRotation, currentRow, currentCol - 1, TetrisInput.LEFT, 1, queue, tail);
+                tail = visit(current, currentRotation, currentRow, currentCol + 1, TetrisInput.RIGHT, 1, queue, tail);
+                tail = visit(current, TetrisShapes.nextRotation(currentRotation), currentRow, currentCol,
+                        TetrisInput.ROTATE, 1, queue, tail);
+            }
+            if (currentRow + 1 < open) {
+                fallenTail = visit(current, currentRotation, open, currentCol, TetrisInput.SOFT_DROP,
+                        open - currentRow, fallen, fallenTail);
+            } else {
+                tail = visit(current, currentRotation, currentRow + 1, currentCol, TetrisInput.SOFT_DROP, 1, queue,
+                        tail);
+            }
+        }
+        return count;
+    }
+
+    // Queues a state the brick fits in that a move of the given amount of inputs reaches, returns the new end of
+    // the queue
+    private int visit(int from, int rotation, int row, int col, TetrisInput input, int cost, int[] to, int tail) {
+        if (!fits(rotation, row, col)) {
+            return tail;
+        }
+        int next = state(rotation, row, col);
+        if (isMarked(visited, next)) {
+            return tail;
+        }
+        mark(visited, next);
+        parent[next] = from;
+        moves[next] = (byte) input.ordinal();
+        distances[next] = distances[from] + cost;
+        to[tail] = next;
+        return tail + 1;
+    }
+
+    // Row the brick lands on from (row, col), every row it falls through is remembered to land on the same one
+    private int dropRow(int rotation, int row, int col) {
+        int landing = row;
+        while (fits(rotation, landing + 1, col)) {
+            int below = state(rotation, landing + 1, col);
+            if (dropStamps[below] == stamp) {
+                landing = dropRows[below];
+                break;
+            }
+            landing++;
+        }
+        for (int fallen = row; fallen <= landing; fallen++) {
+            int through = state(rotation, fallen, col);
+            if (dropStamps[through] == stamp) {
+                break;
+            }
+            dropRows[through] = landing;
+            dropStamps[through] = stamp;
+        }
+        return landing;
+    }
+
+    private boolean fits(int rotation, int row, int col) {
+        return TetrisBoard.fits(words, type, rotation, row, col);
+    }
+
+    private int state(int rotation, int row, int col) {
+        return (rotation * stateRows + row + padding) * stateCols + col + padding;
+    }
+
+    private int rotationOf(int state) {
+        return state / (stateRows * stateCols);
+    }
+
+    private int rowOf(int state) {
+        return state / stateCols % stateRows - padding;
+    }
+
+    private int colOf(int state) {
+        return state % stateCols - padding;
+    }
+
+    private static void mark(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static boolean isMarked(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // Resting spots found by the last search
+    public int getCount() {
+        return count;
+    }
+
+    public int getRotation(int index) {
+        return rotationOf(landings[index]);
+    }
+
+    // Row of the brick's center when it comes to rest
+    public int getRow(int index) {
+        return rowOf(landings[index]);
+    }
+
+    // Column of the brick's center when it comes to rest
+    public int getCol(int index) {
+        return colOf(landings[index]);
+    }
+
+    // Inputs in the shortest path to the spot, the final HARD_DROP included
+    public int getPathLength(int index) {
+        return distances[droppedFrom[index]] + 1;
+    }
+
+    // Writes the shortest path to the spot into the array, returns its length
+    public int getPath(int index, TetrisInput[] path) {
+        int length = getPathLength(index);
+        path[length - 1] = TetrisInput.HARD_DROP;
+        int step = length - 2;
+        for (int state = droppedFrom[index]; parent[state] >= 0; state = parent[state]) {
+            // A fall through the empty rows is one move for as many rows as it fell
+            for (int move = distances[state] - distances[parent[state]]; move > 0; move--) {
+                path[step--] = inputs[moves[state]];
+            }
+        }
+        return length;
+    }
+
+    // Most spots a search can find, and so the most inputs a path can hold
+    public int getCapacity() {
+        return states;
+    }
+}
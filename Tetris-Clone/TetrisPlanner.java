@@ -0,0 +1,411 @@
+// Chooses where the active brick should go by looking ahead through the bricks the player can already see
+// Every sequence of placements of the active brick and the previewed ones is tried, and the board left after the
+// last one is scored on aggregate height, lines cleared, holes and bumpiness
+//
+// The search deepens one brick at a time until it runs out of time, so slower machines simply look less far ahead.
+// A level that does not finish in time is thrown away, the last finished level decides.
+// Past the first brick only the best few placements of each brick (by the score of the board they leave) are
+// searched further. The first brick's placements are searched in parallel on a fork-join pool.
+//
+// Placements are found by a TetrisPlacements search per brick, so spins and tucks under overhangs are tried too.
+// The active brick's search also gives the inputs that reach the chosen placement
+//
+// Boards are the playfield's row words (bit N is column N) copied into scratch arrays kept per thread,
+// so once every thread has its scratch a search allocates nothing but its task list
+//
+// The same board is often reached by placing bricks in a different order or in different spots that fill the same
+// cells. Every board carries a Zobrist hash (see TetrisBoard), and the score found below a board for the bricks
+// still to come is kept in a transposition table shared by all threads and kept from one brick to the next
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class TetrisPlanner {
+    // Weights of the board features, larger is better, so height, holes and bumpiness count against a placement
+    private final double heightWeight = -0.510066;
+    private final double linesWeight = 0.760666;
+    private final double holesWeight = -0.35663;
+    private final double bumpinessWeight = -0.184483;
+
+    // Placements of each brick past the first that are searched further
+    private final int beamWidth = 6;
+
+    // The transposition table holds 2 ^ tableBits boards
+    private final int tableBits = 18;
+
+    // Score of a placement that ends the game
+    private static final double LOST = -Double.MAX_VALUE;
+
+    private final int rows;
+    private final int cols;
+    private final int fullRow;
+    private final int maxCandidates;
+
+    private final long budgetNanos;
+    private final ForkJoinPool pool;
+
+    // Types of the bricks being planned, the active one first, read by every search thread
+    private final int[] pieces;
+    private int depth;
+    private int spawnCol;
+    private int spawnRow;
+    private long deadline;
+    private volatile boolean expired;
+
+    // Hash of the playfield, and per level the key of the bricks still to come from that level on
+    private long rootHash;
+    private final long[] sequenceKeys;
+
+    // Only a planner that can look past the active brick ever searches, the others have no table
+    private final TetrisTranspositionTable table;
+
+    private final ThreadLocal<Scratch> scratches = ThreadLocal.withInitial(Scratch::new);
+
+    // The playfield, and the placements of the active brick with their scores for the level being searched
+    private final int[] rootBoard;
+    private final TetrisPlacements rootPlacements;
+    private final int[] rootCandidates;
+    private final double[] rootScores;
+
+    // Outcome of the last plan, best is the index of the chosen placement in rootPlacements
+    private int best;
+    private int bestRotation;
+    private int bestRow;
+    private int bestCol;
+    private int searchedDepth;
+
+    // Arrays one search thread works in, one board, candidate list and beam per brick being planned
+    // boards[level] is the board that level's brick is placed on, the active brick's board is rootBoard
+    private class Scratch {
+        final TetrisPlacements placements = new TetrisPlacements(rows, cols);
+        final int[][] boards = new int[pieces.length + 1][rows];
+        final long[] hashes = new long[pieces.length + 1];
+        final int[][] candidates = new int[pieces.length][maxCandidates];
+        final int[][] beam = new int[pieces.length][beamWidth];
+        final double[][] beamScores = new double[pieces.length][beamWidth];
+        final int[] heights = new int[cols];
+    }
+
+    // Plans on a board of the given size, looking at most maxPieces bricks ahead (the active one included)
+    // With a budget of 0 only the active brick is planned, which never leaves the calling thread
+    public TetrisPlanner(int rows, int cols, int maxPieces, long budgetNanos, ForkJoinPool pool) {
+        this.rows = rows;
+        this.cols = cols;
+        this.fullRow = (1 << cols) - 1;
+        this.rootPlacements = new TetrisPlacements(rows, cols);
+        this.maxCandidates = rootPlacements.getCapacity();
+        this.budgetNanos = budgetNanos;
+        this.pool = pool;
+        this.pieces = new int[Math.max(1, maxPieces)];
+        this.sequenceKeys = new long[pieces.length];
+        this.rootBoard = new int[rows];
+        this.rootCandidates = new int[maxCandidates];
+        this.rootScores = new double[maxCandidates];
+        this.table = budgetNanos > 0 && pieces.length > 1 ? new TetrisTranspositionTable(tableBits) : null;
+    }
+
+    // Plans the game's active brick, using as many of the previewed bricks as the budget allows
+    // The game's border row is left out of the playfield
+    public void plan(TetrisGame game) {
+        long start = System.nanoTime();
+        TetrisBoard board = game.getBoard();
+        TetrisBrick brick = game.getCurrentPlace();
+        int known = Math.min(pieces.length, 1 + game.getPreviewDepth());
+        pieces[0] = brick.getType();
+        for (int index = 1; index < known; index++) {
+            pieces[index] = game.getQueue(index - 1);
+        }
+        spawnCol = game.getSpawnCol();
+        spawnRow = game.getSpawnRow();
+
+        for (int row = 0; row < rows; row++) {
+            rootBoard[row] = board.getRowBits(row);
+        }
+        // Rows below the playfield (the game's border) are not part of the planner's hashes
+        rootHash = board.getHash();
+        for (int row = rows; row < board.getRows(); row++) {
+            rootHash ^= TetrisBoard.rowHash(row, board.getRowBits(row));
+        }
+        if (table != null) {
+            table.nextGeneration();
+        }
+        int count = enumerate(rootPlacements, rootBoard, brick.getType(), brick.getOrientation(), brick.getRow(),
+                brick.getCol(), rootCandidates);
+
+        // One brick is always planned, whatever the budget
+        // Scoring its placements is timed, the next level scores about as many placements below each of them
+        long levelStart = System.nanoTime();
+        depth = 1;
+        expired = false;
+        deadline = Long.MAX_VALUE;
+        for (int index = 0; index < count; index++) {
+            rootScores[index] = scoreRoot(index);
+        }
+        pickBest(count, brick);
+        searchedDepth = 1;
+
+        deadline = start + budgetNanos;
+        for (int level = 2; level <= known && budgetNanos > 0; level++) {
+            // The second level searches the next brick below every placement of the first, spread over the pool's
+            // threads, and every level after that searches below the beamWidth placements the one before it kept.
+            // A level that cannot finish in time is not started
+            long growth = level == 2 ? (count + pool.getParallelism() - 1) / pool.getParallelism() : beamWidth;
+            long now = System.nanoTime();
+            long previous = now - levelStart;
+            levelStart = now;
+            if (now + previous * growth > deadline) {
+                break;
+            }
+            depth = level;
+            for (int from = 1; from < depth; from++) {
+                sequenceKeys[from] = sequenceKey(from);
+            }
+            int rootCount = count;
+            pool.submit(() -> IntStream.range(0, rootCount).parallel()
+                    .forEach(index -> rootScores[index] = scoreRoot(index))).join();
+            if (expired) {
+                break;
+            }
+            pickBest(count, brick);
+            searchedDepth = level;
+        }
+    }
+
+    private void pickBest(int count, TetrisBrick brick) {
+        double bestScore = Double.NEGATIVE_INFINITY;
+        best = -1;
+        bestRotation = brick.getOrientation();
+        bestRow = brick.getRow();
+        bestCol = brick.getCol();
+        for (int index = 0; index < count; index++) {
+            if (rootScores[index] > bestScore) {
+                bestScore = rootScores[index];
+                best = index;
+                bestRotation = rotationOf(rootCandidates[index]);
+                bestRow = rowOf(rootCandidates[index]);
+                bestCol = colOf(rootCandidates[index]);
+            }
+        }
+    }
+
+    // Score of one placement of the active brick, searched to the current depth on the calling thread's scratch
+    private double scoreRoot(int index) {
+        Scratch scratch = scratches.get();
+        int lines = place(rootBoard, scratch.boards[1], pieces[0], rootCandidates[index]);
+        if (lines < 0) {
+            return LOST;
+        }
+        if (depth == 1) {
+            return evaluate(scratch.boards[1], scratch.heights, lines);
+        }
+        scratch.hashes[1] = hashAfter(rootHash, scratch.boards[1], pieces[0], rootCandidates[index], lines);
+        return linesWeight * lines + search(scratch, 1);
+    }
+
+    // Best score of the board left after placing the brick of the given level and every brick after it,
+    // counting only the lines cleared by those bricks
+    private double search(Scratch scratch, int level) {
+        if (expired || System.nanoTime() > deadline) {
+            expired = true;
+            return LOST;
+        }
+        long key = scratch.hashes[level] ^ sequenceKeys[level];
+        double stored = table.get(key, depth - level);
+        if (!Double.isNaN(stored)) {
+            return stored;
+        }
+        int[] board = scratch.boards[level];
+        int[] next = scratch.boards[level + 1];
+        int[] candidates = scratch.candidates[level];
+        int type = pieces[level];
+        int count = enumerate(scratch.placements, board, type, 0, spawnRow, spawnCol, candidates);
+        boolean last = level + 1 == depth;
+
+        // Scores every placement by the board it leaves, keeping the best few for the next brick
+        int[] beam = scratch.beam[level];
+        double[] beamScores = scratch.beamScores[level];
+        int kept = 0;
+        double best = LOST;
+        for (int index = 0; index < count; index++) {
+            int lines = place(board, next, type, candidates[index]);
+            if (lines < 0) {
+                continue;
+            }
+            double score = evaluate(next, scratch.heights, lines);
+            if (last) {
+                best = Math.max(best, score);
+                continue;
+            }
+            int slot;
+            if (kept < beamWidth) {
+                slot = kept++;
+            } else if (score > beamScores[beamWidth - 1]) {
+                slot = beamWidth - 1;
+            } else {
+                continue;
+            }
+            while (slot > 0 && beamScores[slot - 1] < score) {
+                beam[slot] = beam[slot - 1];
+                beamScores[slot] = beamScores[slot - 1];
+                slot--;
+            }
+            beam[slot] = candidates[index];
+            beamScores[slot] = score;
+        }
+        if (!last) {
+            for (int index = 0; index < kept; index++) {
+                int lines = place(board, next, type, beam[index]);
+                scratch.hashes[level + 1] = hashAfter(scratch.hashes[level], next, type, beam[index], lines);
+                best = Math.max(best, linesWeight * lines + search(scratch, level + 1));
+            }
+        }
+        // A score cut short by the deadline is only a lower bound, it is not kept
+        if (!expired) {
+            table.put(key, depth - level, best);
+        }
+        return best;
+    }
+
+    // Hash of the board a placement left, only a board that lost lines has to be hashed again from scratch
+    private long hashAfter(long hash, int[] next, int type, int placement, int lines) {
+        if (lines > 0) {
+            hash = 0;
+            for (int row = 0; row < rows; row++) {
+                hash ^= TetrisBoard.rowHash(row, next[row]);
+            }
+            return hash;
+        }
+        int rotation = rotationOf(placement);
+        int left = colOf(placement) + TetrisShapes.getMinX(type, rotation);
+        int top = rowOf(placement) + TetrisShapes.getMinY(type, rotation);
+        for (int boxRow = 0; boxRow < TetrisShapes.getHeight(type, rotation); boxRow++) {
+            hash ^= TetrisBoard.rowHash(top + boxRow, TetrisShapes.getRowMask(type, rotation, boxRow) << left);
+        }
+        return hash;
+    }
+
+    // Key of the bricks from the given level to the current depth, by their place in that sequence,
+    // so the same bricks still to come give the same key when the next brick is planned
+    // Cells above the board never occur in a board hash, their keys stand in for (place, type) pairs
+    private long sequenceKey(int from) {
+        long key = 0;
+        for (int level = from; level < depth; level++) {
+            key ^= TetrisBoard.cellKey(-1 - (level - from), pieces[level]);
+        }
+        return key;
+    }
+
+    // Lists every placement the brick can reach from (row, col), returns how many there are
+    private int enumerate(TetrisPlacements placements, int[] board, int type, int orientation, int row, int col,
+            int[] out) {
+        int count = placements.generate(board, type, orientation, row, col);
+        for (int index = 0; index < count; index++) {
+            out[index] = pack(placements.getRotation(index), placements.getRow(index), placements.getCol(index));
+        }
+        return count;
+    }
+
+    // Copies the board with the placement locked in and full rows removed into next
+    // Returns the amount of lines cleared, or -1 when part of the brick stays above the board
+    private int place(int[] board, int[] next, int type, int placement) {
+        int rotation = rotationOf(placement);
+        int left = colOf(placement) + TetrisShapes.getMinX(type, rotation);
+        int top = rowOf(placement) + TetrisShapes.getMinY(type, rotation);
+        int height = TetrisShapes.getHeight(type, rotation);
+        if (top < 0) {
+            return -1;
+        }
+        int lines = 0;
+        int write = rows - 1;
+        for (int row = rows - 1; row >= 0; row--) {
+            int word = board[row];
+            if (row >= top && row < top + height) {
+                word |= TetrisShapes.getRowMask(type, rotation, row - top) << left;
+            }
+            if (word == fullRow) {
+                lines++;
+            } else {
+                next[write--] = word;
+            }
+        }
+        while (write >= 0) {
+            next[write--] = 0;
+        }
+        return lines;
+    }
+
+    // Score of a board without full rows, after the given amount of lines were cleared to get there
+    private double evaluate(int[] board, int[] heights, int lines) {
+        int seen = 0;
+        int holes = 0;
+        for (int row = 0; row < rows; row++) {
+            int word = board[row];
+            for (int tops = word & ~seen; tops != 0; tops &= tops - 1) {
+                heights[Integer.numberOfTrailingZeros(tops)] = rows - row;
+            }
+            holes += Integer.bitCount(~word & seen);
+            seen |= word;
+        }
+
+        int aggregate = 0;
+        int bumpiness = 0;
+        for (int col = 0; col < cols; col++) {
+            if ((seen & (1 << col)) == 0) {
+                heights[col] = 0;
+            }
+            aggregate += heights[col];
+            if (col > 0) {
+                bumpiness += Math.abs(heights[col] - heights[col - 1]);
+            }
+        }
+        return heightWeight * aggregate + linesWeight * lines + holesWeight * holes + bumpinessWeight * bumpiness;
+    }
+
+    // A placement packed into one int: rotation, landing row and column of the brick's center
+    private static int pack(int rotation, int row, int col) {
+        return rotation << 16 | (row + 128) << 8 | (col + 128);
+    }
+
+    private static int rotationOf(int placement) {
+        return placement >>> 16;
+    }
+
+    private static int rowOf(int placement) {
+        return (placement >>> 8 & 0xff) - 128;
+    }
+
+    private static int colOf(int placement) {
+        return (placement & 0xff) - 128;
+    }
+
+    // Rotation the active brick should end up in
+    public int getRotation() {
+        return bestRotation;
+    }
+
+    // Row the active brick's center should end up on
+    public int getRow() {
+        return bestRow;
+    }
+
+    // Column the active brick's center should end up in
+    public int getCol() {
+        return bestCol;
+    }
+
+    // Writes the shortest inputs that take the active brick to the chosen placement into the array, HARD_DROP last,
+    // returns how many there are, 0 when the brick had nowhere to go (see TetrisPlacements for what they mean)
+    public int getPath(TetrisInput[] path) {
+        return best < 0 ? 0 : rootPlacements.getPath(best, path);
+    }
+
+    // Most inputs a path can hold
+    public int getMaxPathLength() {
+        return rootPlacements.getCapacity();
+    }
+
+    // Bricks the last plan looked at, the active one included
+    public int getSearchedDepth() {
+        return searchedDepth;
+    }
+}
@@ -0,0 +1,69 @@
+// Decides which brick types join the queue, every randomizer draws from a single seeded SplittableRandom
+// The same seed always deals the same bricks, so games can be replayed and compared exactly
+// Subclasses pick the next type, this class keeps the seed and counts the draws
+
+import java.util.SplittableRandom;
+
+public abstract class TetrisRandomizer {
+    protected SplittableRandom random;
+    private long seed;
+    private long draws;
+
+    protected TetrisRandomizer(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    // Type of the next brick in the sequence
+    public int next() {
+        draws++;
+        return pick();
+    }
+
+    // Starts the sequence over from the given seed
+    public void reset(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.draws = 0;
+        restart();
+    }
+
+    // Draws and discards bricks, used to put a restored sequence back where it was saved
+    public void skip(long amount) {
+        for (long draw = 0; draw < amount; draw++) {
+            next();
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Bricks drawn since the last reset
+    public long getDraws() {
+        return draws;
+    }
+
+    protected abstract int pick();
+
+    // Clears any state kept between draws, called after the random source has been reseeded
+    protected abstract void restart();
+
+    public abstract String getName();
+
+    // Creates a randomizer by name: "7bag", "14bag", "uniform" or "history"
+    public static TetrisRandomizer create(String name, long seed) {
+        switch (name) {
+            case "7bag":
+                return new BagRandomizer(seed, 1);
+            case "14bag":
+                return new BagRandomizer(seed, 2);
+            case "uniform":
+                return new UniformRandomizer(seed);
+            case "history":
+                return new HistoryRandomizer(seed);
+            default:
+                throw new IllegalArgumentException("Unknown randomizer: " + name);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+// Records a game as its seed plus every input with the tick it was applied on, and plays it back exactly
+// Since the game only depends on its randomizer seed and its inputs, playback reproduces the session tick for tick
+//
+// File layout, all numbers are varints unless noted:
+//   magic (4 bytes), version (1 byte), rows, cols, randomizer name length, name (ASCII), seed (8 bytes),
+//   end tick, event count, then one varint per event holding (ticks since the last event * 8 + input ordinal)
+//
+// Usage: java TetrisReplay [file]
+//   plays the replay headless at full speed and prints the outcome
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class TetrisReplay {
+    public static final String LAST_REPLAY_FILE = "lastreplay.trp";
+
+    private static final int MAGIC = 0x5452504c; // "TRPL"
+    private static final int VERSION = 1;
+
+    // Low bits of every event hold the input, the rest the tick delta
+    private static final int inputBits = 3;
+    private static final int inputMask = (1 << inputBits) - 1;
+
+    private final TetrisInput[] inputTypes = TetrisInput.values();
+
+    private final int rows;
+    private final int cols;
+    private final String randomizer;
+    private final long seed;
+
+    // Encoded events
+    private byte[] events = new byte[256];
+    private int length;
+    private int eventCount;
+    private int lastTick;
+    private int endTick;
+
+    // Playback cursor, the next event is decoded ahead of time
+    private int readPosition;
+    private int readEvents;
+    private int readTick;
+    private TetrisInput readInput;
+
+    public TetrisReplay(int rows, int cols, String randomizer, long seed) {
+        this.rows = rows;
+        this.cols = cols;
+        this.randomizer = randomizer;
+        this.seed = seed;
+    }
+
+    // Starts recording a game that has not dealt any bricks yet
+    public static TetrisReplay record(TetrisGame game) {
+        TetrisReplay replay = new TetrisReplay(game.fetchRows(), game.fetchCols(),
+                game.getRandomizer().getName(), game.getRandomizer().getSeed());
+        game.setRecorder(replay);
+        return replay;
+    }
+
+    // New game with the same board size and brick sequence as the recorded one, startGame() still has to be called
+    public TetrisGame newGame() {
+        return new TetrisGame(rows, cols, TetrisRandomizer.create(randomizer, seed));
+    }
+
+    // Called by the game for every input it applies, ticks never go backwards
+    public synchronized void record(int tick, TetrisInput input) {
+        if (length + 5 > events.length) {
+            events = Arrays.copyOf(events, events.length * 2);
+        }
+        length = writeVarint(events, length, ((tick - lastTick) << inputBits) | input.ordinal());
+        lastTick = tick;
+        eventCount++;
+        endTick = Math.max(endTick, tick + 1);
+    }
+
+    // Tick the recording stops at, playback keeps stepping the game until it gets there
+    public synchronized void setEndTick(int tick) {
+        endTick = Math.max(lastTick + 1, tick);
+    }
+
+    public synchronized int getEndTick() {
+        return endTick;
+    }
+
+    public synchronized int getEventCount() {
+        return eventCount;
+    }
+
+    // Applies the recorded inputs of the game's next tick, then steps it
+    // Returns false once the recording has ended
+    public boolean stepGame(TetrisGame game) {
+        int tick = game.getTicks();
+        if (tick >= endTick) {
+            return false;
+        }
+        if (readInput == null && readEvents < eventCount) {
+            readNext();
+        }
+        while (readInput != null && readTick == tick) {
+            game.applyInput(readInput);
+            readInput = null;
+            if (readEvents < eventCount) {
+                readNext();
+            }
+        }
+        game.step(TetrisInput.NONE);
+        return true;
+    }
+
+    // Plays the rest of the recording as fast as possible, returns the amount of ticks played
+    public int play(TetrisGame game) {
+        int ticks = 0;
+        while (!game.isGameOver() && stepGame(game)) {
+            ticks++;
+        }
+        return ticks;
+    }
+
+    // Moves the playback cursor back to the first event
+    public void rewind() {
+        readPosition = 0;
+        readEvents = 0;
+        readTick = 0;
+        readInput = null;
+    }
+
+    private void readNext() {
+        int value = 0;
+        int shift = 0;
+        int next;
+        do {
+            next = events[readPosition++];
+            value |= (next & 0x7f) << shift;
+            shift += 7;
+        } while ((next & 0x80) != 0);
+        readTick += value >>> inputBits;
+        readInput = inputTypes[value & inputMask];
+        readEvents++;
+    }
+
+    private static int writeVarint(byte[] buffer, int position, int value) {
+        while ((value & ~0x7f) != 0) {
+            buffer[position++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int next;
+        do {
+            if (shift > 28) {
+                throw new IOException("Malformed varint in replay");
+            }
+            next = in.readUnsignedByte();
+            value |= (next & 0x7f) << shift;
+            shift += 7;
+        } while ((next & 0x80) != 0);
+        return value;
+    }
+
+    public synchronized void save(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeVarint(out, rows);
+            writeVarint(out, cols);
+            byte[] name = randomizer.getBytes(StandardCharsets.US_ASCII);
+            writeVarint(out, name.length);
+            out.write(name);
+            out.writeLong(seed);
+            writeVarint(out, endTick);
+            writeVarint(out, eventCount);
+            out.write(events, 0, length);
+        }
+    }
+
+    public static TetrisReplay load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a replay");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported replay version " + version);
+            }
+            int rows = readVarint(in);
+            int cols = readVarint(in);
+            byte[] name = new byte[readVarint(in)];
+            in.readFully(name);
+            long seed = in.readLong();
+
+            TetrisReplay replay = new TetrisReplay(rows, cols, new String(name, StandardCharsets.US_ASCII), seed);
+            int endTick = readVarint(in);
+            int eventCount = readVarint(in);
+            // Events are re-encoded on the way in, which also checks they are well formed
+            TetrisInput[] inputs = TetrisInput.values();
+            int tick = 0;
+            for (int event = 0; event < eventCount; event++) {
+                int value = readVarint(in);
+                if ((value & inputMask) >= inputs.length) {
+                    throw new IOException("Unknown input in replay");
+                }
+                tick += value >>> inputBits;
+                replay.record(tick, inputs[value & inputMask]);
+            }
+            replay.setEndTick(endTick);
+            return replay;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        File file = new File(args.length > 0 ? args[0] : LAST_REPLAY_FILE);
+        TetrisReplay replay = load(file);
+        TetrisGame game = replay.newGame();
+        game.startGame();
+
+        long start = System.nanoTime();
+        int ticks = replay.play(game);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Replay: " + file + ", " + replay.getEventCount() + " inputs over "
+                + replay.getEndTick() + " ticks, randomizer " + replay.randomizer + ", seed " + replay.seed);
+        System.out.printf("Played %d ticks in %.3f s, %.0f ticks/s%n", ticks, seconds, ticks / seconds);
+        System.out.println("Score: " + game.getScore() + ", lines: " + game.getLinesCleared() + ", pieces: "
+                + game.getPiecesPlaced() + ", level: " + game.getLevel() + (game.isGameOver() ? ", game over" : ""));
+    }
+}
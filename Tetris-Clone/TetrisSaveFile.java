@@ -0,0 +1,132 @@
+// Binary save format: a small header followed by the game's snapshot (see TetrisGame.writeSnapshot)
+// Header: magic (4 bytes), version (2 bytes), snapshot length (4 bytes), CRC32 of the snapshot (4 bytes)
+// Loading only checks the header and checksum and copies the fields back, there is no text to parse
+//
+// Save files are written to a temporary file first and renamed over the old one,
+// so a crash in the middle of saving leaves the previous save intact
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+public final class TetrisSaveFile {
+    public static final String SAVE_FILE = "lastsave.sav";
+
+    private static final int MAGIC = 0x54534156; // "TSAV"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 14;
+
+    // Nothing the game writes comes close, anything bigger is not a save
+    private static final int maxFileSize = 1 << 20;
+
+    private TetrisSaveFile() {
+    }
+
+    // Largest record the game can currently produce, header included
+    public static int maxRecordSize(TetrisGame game) {
+        return HEADER_SIZE + game.getSnapshotSize();
+    }
+
+    // Writes a header and snapshot at the buffer's position, leaving the position after the record
+    public static void writeRecord(TetrisGame game, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        game.writeSnapshot(buffer);
+        int length = buffer.position() - start - HEADER_SIZE;
+
+        buffer.putInt(start, MAGIC);
+        buffer.putShort(start + 4, VERSION);
+        buffer.putInt(start + 6, length);
+        buffer.putInt(start + 10, checksum(buffer, start + HEADER_SIZE, length));
+    }
+
+    // Checks the record at the buffer's position and restores the game from it
+    public static void readRecord(TetrisGame game, ByteBuffer buffer) throws IOException {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(start) != MAGIC) {
+            throw new IOException("Not a Tetris save");
+        }
+        short version = buffer.getShort(start + 4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported save version " + version);
+        }
+        int length = buffer.getInt(start + 6);
+        if (length < 0 || length > buffer.remaining() - HEADER_SIZE) {
+            throw new IOException("Save is truncated");
+        }
+        if (buffer.getInt(start + 10) != checksum(buffer, start + HEADER_SIZE, length)) {
+            throw new IOException("Save is corrupt, checksum does not match");
+        }
+
+        ByteBuffer snapshot = buffer.duplicate();
+        snapshot.position(start + HEADER_SIZE);
+        snapshot.limit(start + HEADER_SIZE + length);
+        try {
+            game.readSnapshot(snapshot);
+        } catch (RuntimeException e) {
+            // Whatever a damaged snapshot makes the decoder trip over, it is reported like any other bad save
+            throw new IOException("Save is corrupt", e);
+        }
+        buffer.position(start + HEADER_SIZE + length);
+    }
+
+    private static int checksum(ByteBuffer buffer, int from, int length) {
+        ByteBuffer range = buffer.duplicate();
+        range.limit(from + length);
+        range.position(from);
+        CRC32 crc = new CRC32();
+        crc.update(range);
+        return (int) crc.getValue();
+    }
+
+    // Record of the game as it is now, ready to be written by write() or a TetrisSaveStore later on
+    public static ByteBuffer encode(TetrisGame game) {
+        ByteBuffer buffer = ByteBuffer.allocate(maxRecordSize(game));
+        writeRecord(game, buffer);
+        buffer.flip();
+        return buffer;
+    }
+
+    public static void save(TetrisGame game, Path path) throws IOException {
+        write(encode(game), path);
+    }
+
+    // Writes an encoded record to the path, replacing the old file only once the new one is complete
+    public static void write(ByteBuffer record, Path path) throws IOException {
+        ByteBuffer buffer = record.duplicate();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static void load(TetrisGame game, Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > maxFileSize) {
+                throw new IOException("Save is too large");
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+        }
+        readRecord(game, buffer);
+    }
+}
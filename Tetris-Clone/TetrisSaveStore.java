@@ -0,0 +1,252 @@
+// Many named saved games in one memory-mapped file, each slot found by its number without reading the others
+// Every slot holds two copies of its record (the TetrisSaveFile format), a save writes the copy not in use and
+// only then flips the slot's index entry over to it, so a crash mid-save leaves the slot's last save readable
+//
+// File layout:
+//   header: magic (4 bytes), version (2 bytes), slot count (2 bytes), copy size (4 bytes)
+//   index: one entry per slot, name length (1 byte), name (UTF-8, padded), in use (1 byte),
+//          active copy (1 byte), padding (1 byte), saves written (4 bytes)
+//   data: two copies of copy size bytes per slot
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TetrisSaveStore {
+    public static final String STORE_FILE = "saves.tss";
+    public static final int DEFAULT_SLOTS = 64;
+    public static final int MAX_NAME_BYTES = 31;
+
+    private static final int MAGIC = 0x54535354; // "TSST"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_SIZE = 1 + MAX_NAME_BYTES + 1 + 1 + 1 + 4;
+
+    // Room for one record, far more than a 20x10 game needs
+    private static final int COPY_SIZE = 1024;
+
+    // Offsets inside an index entry
+    private static final int nameOffset = 1;
+    private static final int usedOffset = 1 + MAX_NAME_BYTES;
+    private static final int activeOffset = usedOffset + 1;
+    private static final int savesOffset = activeOffset + 2;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int slots;
+    private final int dataStart;
+
+    // Used slots by name, rebuilt from the index when the store is opened
+    private final Map<String, Integer> slotsByName = new HashMap<String, Integer>();
+
+    private TetrisSaveStore(FileChannel channel, MappedByteBuffer map, int slots) {
+        this.channel = channel;
+        this.map = map;
+        this.slots = slots;
+        this.dataStart = HEADER_SIZE + slots * ENTRY_SIZE;
+    }
+
+    // Opens the store, creating it with the given amount of slots when the file does not exist yet
+    public static TetrisSaveStore open(Path path, int slots) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean created = channel.size() == 0;
+            if (!created) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                }
+                header.flip();
+                if (header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                    throw new IOException(path + " is not a save store");
+                }
+                if (header.getShort(4) != VERSION || header.getInt(8) != COPY_SIZE) {
+                    throw new IOException("Unsupported save store version " + header.getShort(4));
+                }
+                slots = header.getShort(6);
+            }
+            long size = HEADER_SIZE + (long) slots * ENTRY_SIZE + (long) slots * 2 * COPY_SIZE;
+            if (!created && channel.size() < size) {
+                throw new IOException(path + " is truncated");
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            TetrisSaveStore store = new TetrisSaveStore(channel, map, slots);
+            if (created) {
+                map.putInt(0, MAGIC);
+                map.putShort(4, VERSION);
+                map.putShort(6, (short) slots);
+                map.putInt(8, COPY_SIZE);
+                map.force();
+            }
+            store.indexNames();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void indexNames() {
+        for (int slot = 0; slot < slots; slot++) {
+            if (isUsed(slot)) {
+                slotsByName.put(getName(slot), slot);
+            }
+        }
+    }
+
+    private int entry(int slot) {
+        if (slot < 0 || slot >= slots) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " out of " + slots);
+        }
+        return HEADER_SIZE + slot * ENTRY_SIZE;
+    }
+
+    private int copy(int slot, int copy) {
+        return dataStart + (slot * 2 + copy) * COPY_SIZE;
+    }
+
+    public int getSlotCount() {
+        return slots;
+    }
+
+    public boolean isUsed(int slot) {
+        return map.get(entry(slot) + usedOffset) != 0;
+    }
+
+    public String getName(int slot) {
+        int entry = entry(slot);
+        byte[] name = new byte[map.get(entry) & 0xff];
+        ByteBuffer buffer = map.duplicate();
+        buffer.position(entry + nameOffset);
+        buffer.get(name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    // Amount of times the slot has been saved to
+    public int getSaves(int slot) {
+        return map.getInt(entry(slot) + savesOffset);
+    }
+
+    // Slot holding the save with the given name, -1 when there is none
+    public int find(String name) {
+        Integer slot = slotsByName.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    // First slot not in use, -1 when the store is full
+    public int findFree() {
+        for (int slot = 0; slot < slots; slot++) {
+            if (!isUsed(slot)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // Names of every used slot, in slot order
+    public ArrayList<String> getNames() {
+        ArrayList<String> names = new ArrayList<String>();
+        for (int slot = 0; slot < slots; slot++) {
+            if (isUsed(slot)) {
+                names.add(getName(slot));
+            }
+        }
+        return names;
+    }
+
+    // Saves the game under the given name, reusing that name's slot or taking a free one
+    // Returns the slot the game was saved to
+    public int save(String name, TetrisGame game) throws IOException {
+        return save(name, TetrisSaveFile.encode(game));
+    }
+
+    // Same as save(name, game) for a record encoded earlier with TetrisSaveFile.encode()
+    public int save(String name, ByteBuffer record) throws IOException {
+        int slot = find(name);
+        if (slot < 0) {
+            slot = findFree();
+            if (slot < 0) {
+                throw new IOException("Every save slot is in use");
+            }
+        }
+        save(slot, name, record);
+        return slot;
+    }
+
+    public void save(int slot, String name, ByteBuffer record) throws IOException {
+        int entry = entry(slot);
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > MAX_NAME_BYTES) {
+            throw new IOException("Save names are limited to " + MAX_NAME_BYTES + " bytes");
+        }
+        if (record.remaining() > COPY_SIZE) {
+            throw new IOException("Game is too large for a save slot");
+        }
+
+        // The copy not in use is written and flushed before the index points at it
+        boolean used = isUsed(slot);
+        int target = used ? 1 - map.get(entry + activeOffset) : 0;
+        ByteBuffer copy = map.duplicate();
+        copy.position(copy(slot, target));
+        copy.put(record.duplicate());
+        map.force();
+
+        if (used && !getName(slot).equals(name)) {
+            slotsByName.remove(getName(slot));
+        }
+        map.put(entry, (byte) nameBytes.length);
+        ByteBuffer nameBuffer = map.duplicate();
+        nameBuffer.position(entry + nameOffset);
+        nameBuffer.put(nameBytes);
+        map.put(entry + activeOffset, (byte) target);
+        map.putInt(entry + savesOffset, used ? getSaves(slot) + 1 : 1);
+        map.put(entry + usedOffset, (byte) 1);
+        map.force();
+        slotsByName.put(name, slot);
+    }
+
+    // Restores the game saved in the slot, falling back to the slot's older copy if the newest is damaged
+    public void load(int slot, TetrisGame game) throws IOException {
+        int entry = entry(slot);
+        if (!isUsed(slot)) {
+            throw new IOException("Save slot " + slot + " is empty");
+        }
+        int active = map.get(entry + activeOffset);
+        try {
+            TetrisSaveFile.readRecord(game, slice(slot, active));
+        } catch (IOException e) {
+            if (getSaves(slot) < 2) {
+                throw e;
+            }
+            TetrisSaveFile.readRecord(game, slice(slot, 1 - active));
+        }
+    }
+
+    private ByteBuffer slice(int slot, int copy) {
+        ByteBuffer buffer = map.duplicate();
+        buffer.position(copy(slot, copy));
+        buffer.limit(copy(slot, copy) + COPY_SIZE);
+        return buffer;
+    }
+
+    // Frees the slot, its records stay on disk until the slot is reused
+    public void delete(int slot) {
+        if (isUsed(slot)) {
+            slotsByName.remove(getName(slot));
+            map.put(entry(slot) + usedOffset, (byte) 0);
+            map.force();
+        }
+    }
+
+    public void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,405 @@
+// Headless checks that the engine still behaves exactly as it did, for changes that are not meant to change it
+// Every check plays seeded games or boards, so it gives the same answer on every machine
+//   trace       per-tick state of 300 seeded random games, hashed and compared with the hash this build should give
+//   save        200 games played part way by the bot, saved, reloaded into new games and played on next to them
+//   replay      200 recorded games saved, loaded and played back, ending in the same state as the originals
+//   hash        every board's incremental Zobrist hash against one computed from scratch, on every tick
+//   placements  TetrisPlacements against a plain breadth-first search on 20000 random boards
+//
+// Usage: java TetrisSelfCheck [filter]
+//   filter only runs the checks whose name contains it, "all" runs every check
+//   the exit code is 1 when any check fails
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class TetrisSelfCheck {
+    private final int rows = 20;
+    private final int cols = 10;
+
+    // Hash the trace check prints, copied here from a run of "java TetrisSelfCheck trace". The rewrites of the board,
+    // the bricks and the game loop have all kept it. Only a change meant to alter how games play out
+    // (gravity, scoring, line clears, dealing, spawning or rotation) may change it, and once that change is known to
+    // be intended the hash is regenerated the same way
+    private final long expectedTrace = -203195429623910507L;
+
+    private final String[] randomizers = {"7bag", "14bag", "uniform", "history"};
+    private final TetrisInput[] inputs = TetrisInput.values();
+
+    private final String filter;
+    private int failures;
+
+    public TetrisSelfCheck(String filter) {
+        this.filter = filter;
+    }
+
+    public int runAll() throws IOException {
+        if (selected("trace")) {
+            checkTrace();
+        }
+        if (selected("save")) {
+            checkSave();
+        }
+        if (selected("replay")) {
+            checkReplay();
+        }
+        if (selected("hash")) {
+            checkHash();
+        }
+        if (selected("placements")) {
+            checkPlacements();
+        }
+        return failures;
+    }
+
+    private void checkTrace() {
+        long trace = 0;
+        for (int index = 0; index < 300; index++) {
+            TetrisGame game = new TetrisGame(rows, cols, index);
+            game.startGame();
+            SplittableRandom random = new SplittableRandom(index);
+            for (int tick = 0; tick < 20000 && !game.isGameOver(); tick++) {
+                TetrisInput input = inputs[random.nextInt(inputs.length)];
+                if (input == TetrisInput.HARD_DROP && random.nextInt(8) != 0) {
+                    input = TetrisInput.NONE;
+                }
+                game.step(input);
+                TetrisBrick brick = game.getCurrentPlace();
+                trace = trace * 31 + game.getScore() + game.getPiecesPlaced() * 7 + brick.getOrientation()
+                        + brick.getCol() * 11 + brick.getRow() * 13 + (game.isGameOver() ? 0 : game.getGhostRow() * 5);
+                for (int row = 0; row < rows; row++) {
+                    for (int col = 0; col < cols; col++) {
+                        trace = trace * 17 + game.getBoard().getColor(row, col);
+                    }
+                }
+            }
+            trace = trace * 13 + game.getLinesCleared();
+        }
+        report("trace", trace == expectedTrace ? 0 : 1, "hash " + trace + ", expected " + expectedTrace);
+    }
+
+    private void checkSave() throws IOException {
+        int bad = 0;
+        int saved = 0;
+        for (int index = 0; index < 200; index++) {
+            TetrisGame game = new TetrisGame(rows, cols, TetrisRandomizer.create(randomizers[index % 4], index));
+            game.startGame();
+            SplittableRandom random = new SplittableRandom(index);
+            // The bot keeps the game going long enough to build up a board worth saving
+            TetrisBot bot = new TetrisBot(game);
+            int split = random.nextInt(8000);
+            for (int tick = 0; tick < split && !game.isGameOver(); tick++) {
+                game.step(bot.nextInput());
+            }
+            if (game.isGameOver()) {
+                continue;
+            }
+            if (random.nextBoolean()) {
+                game.setPreviewDepth(1 + random.nextInt(7));
+            }
+            saved++;
+            TetrisGame loaded = new TetrisGame(rows, cols);
+            TetrisSaveFile.readRecord(loaded, TetrisSaveFile.encode(game));
+            loaded.startGame();
+            if (fingerprint(game) != fingerprint(loaded)) {
+                bad++;
+                continue;
+            }
+            for (int tick = 0; tick < 5000; tick++) {
+                TetrisInput input = randomInput(random);
+                game.step(input);
+                loaded.step(input);
+            }
+            if (fingerprint(game) != fingerprint(loaded)) {
+                bad++;
+            }
+        }
+
+        // A save on disk with one byte flipped must be refused
+        Path directory = Files.createTempDirectory("tetris-check");
+        Path path = directory.resolve(TetrisSaveFile.SAVE_FILE);
+        TetrisGame game = new TetrisGame(rows, cols, 1L);
+        game.startGame();
+        TetrisSaveFile.save(game, path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+        try {
+            TetrisSaveFile.load(new TetrisGame(rows, cols), path);
+            bad++;
+        } catch (IOException e) {
+        }
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(directory);
+
+        // A snapshot with any one byte damaged is either read as some other game or refused, and a refused snapshot
+        // leaves the game it was read into as it was
+        TetrisBot bot = new TetrisBot(game);
+        for (int tick = 0; tick < 3000 && !game.isGameOver(); tick++) {
+            game.step(bot.nextInput());
+        }
+        ByteBuffer snapshot = ByteBuffer.allocate(game.getSnapshotSize());
+        game.writeSnapshot(snapshot);
+        snapshot.flip();
+        int refused = 0;
+        for (int index = 0; index < snapshot.limit(); index++) {
+            TetrisGame target = new TetrisGame(rows, cols, index);
+            target.startGame();
+            target.step(TetrisInput.HARD_DROP);
+            long before = fingerprint(target);
+            ByteBuffer damaged = ByteBuffer.allocate(snapshot.limit()).put(snapshot.duplicate());
+            damaged.put(index, (byte) ~damaged.get(index));
+            damaged.flip();
+            try {
+                target.readSnapshot(damaged);
+            } catch (IOException e) {
+                refused++;
+                if (fingerprint(target) != before) {
+                    bad++;
+                }
+            }
+        }
+        report("save", bad, saved + " games reloaded, a corrupted file and " + refused + " damaged snapshots refused");
+    }
+
+    private void checkReplay() throws IOException {
+        Path directory = Files.createTempDirectory("tetris-check");
+        File file = directory.resolve(TetrisReplay.LAST_REPLAY_FILE).toFile();
+        int bad = 0;
+        for (int index = 0; index < 200; index++) {
+            TetrisGame game = new TetrisGame(rows, cols, TetrisRandomizer.create(randomizers[index % 4], index * 977L));
+            TetrisReplay recording = TetrisReplay.record(game);
+            game.startGame();
+            SplittableRandom random = new SplittableRandom(index);
+            int limit = 3000 + random.nextInt(20000);
+            while (!game.isGameOver() && game.getTicks() < limit) {
+                // Some ticks get several inputs, as when keys are pressed faster than the game ticks
+                int extra = random.nextInt(10) == 0 ? random.nextInt(4) : 0;
+                for (int input = 0; input < extra; input++) {
+                    game.applyInput(randomInput(random));
+                }
+                game.step(random.nextInt(30) == 0 ? TetrisInput.ROTATE : TetrisInput.NONE);
+            }
+            recording.setEndTick(game.getTicks());
+            recording.save(file);
+
+            TetrisReplay playback = TetrisReplay.load(file);
+            TetrisGame replayed = playback.newGame();
+            replayed.startGame();
+            playback.play(replayed);
+            if (fingerprint(game) != fingerprint(replayed)) {
+                bad++;
+            }
+        }
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(directory);
+        report("replay", bad, "200 games played back");
+    }
+
+    private void checkHash() {
+        int bad = 0;
+        long checked = 0;
+        for (int index = 0; index < 200; index++) {
+            TetrisGame game = new TetrisGame(rows, cols, index);
+            game.startGame();
+            TetrisBot bot = index % 2 == 0 ? new TetrisBot(game) : null;
+            SplittableRandom random = new SplittableRandom(index);
+            for (int tick = 0; tick < 20000 && !game.isGameOver(); tick++) {
+                game.step(bot != null ? bot.nextInput() : inputs[random.nextInt(inputs.length)]);
+                TetrisBoard board = game.getBoard();
+                long hash = 0;
+                for (int row = 0; row < board.getRows(); row++) {
+                    hash ^= TetrisBoard.rowHash(row, board.getRowBits(row));
+                }
+                checked++;
+                if (hash != board.getHash()) {
+                    bad++;
+                }
+            }
+        }
+        report("hash", bad, checked + " boards");
+    }
+
+    // Every spot found must be reachable in exactly as many inputs as the plain search needs, its path must play
+    // out to that spot, and no spot the plain search finds may be missing
+    private void checkPlacements() {
+        int playfieldRows = rows - 1;
+        TetrisPlacements placements = new TetrisPlacements(playfieldRows, cols);
+        TetrisInput[] path = new TetrisInput[placements.getCapacity()];
+        SplittableRandom random = new SplittableRandom(5);
+        int bad = 0;
+        long found = 0;
+        for (int index = 0; index < 20000; index++) {
+            int[] board = new int[playfieldRows];
+            for (int row = playfieldRows - random.nextInt(14); row < playfieldRows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    if (random.nextInt(100) < 45) {
+                        board[row] |= 1 << col;
+                    }
+                }
+            }
+            int type = random.nextInt(TetrisShapes.AMT_TYPES);
+            Map<Integer, Integer> expected = plainSearch(board, type);
+            int count = placements.generate(board, type, 0, -1, 2);
+            if (count != expected.size()) {
+                bad++;
+            }
+            for (int spot = 0; spot < count; spot++) {
+                int rotation = placements.getRotation(spot);
+                int row = placements.getRow(spot);
+                int col = placements.getCol(spot);
+                Integer distance = expected.get(key(rotation, row, col));
+                int length = placements.getPath(spot, path);
+                if (distance == null || distance != length || !playsOutTo(board, type, path, length, rotation, row, col)) {
+                    bad++;
+                }
+            }
+            found += count;
+        }
+        report("placements", bad, found + " spots on 20000 boards");
+    }
+
+    // Inputs to every resting spot of a brick spawned at the game's spawn point, one move at a time
+    private Map<Integer, Integer> plainSearch(int[] board, int type) {
+        Map<Integer, Integer> spots = new HashMap<Integer, Integer>();
+        Map<Integer, Integer> distances = new HashMap<Integer, Integer>();
+        if (!fitsCells(board, type, 0, -1, 2)) {
+            return spots;
+        }
+        ArrayDeque<int[]> queue = new ArrayDeque<int[]>();
+        queue.add(new int[] {0, -1, 2});
+        distances.put(key(0, -1, 2), 0);
+        while (!queue.isEmpty()) {
+            int[] state = queue.poll();
+            int distance = distances.get(key(state[0], state[1], state[2]));
+            int landing = state[1];
+            while (fitsCells(board, type, state[0], landing + 1, state[2])) {
+                landing++;
+            }
+            if (!spots.containsKey(key(state[0], landing, state[2]))) {
+                spots.put(key(state[0], landing, state[2]), distance + 1);
+            }
+            int[][] moves = {
+                {state[0], state[1], state[2] - 1},
+                {state[0], state[1], state[2] + 1},
+                {TetrisShapes.nextRotation(state[0]), state[1], state[2]},
+                {state[0], state[1] + 1, state[2]}
+            };
+            for (int[] move : moves) {
+                int moveKey = key(move[0], move[1], move[2]);
+                if (fitsCells(board, type, move[0], move[1], move[2]) && !distances.containsKey(moveKey)) {
+                    distances.put(moveKey, distance + 1);
+                    queue.add(move);
+                }
+            }
+        }
+        return spots;
+    }
+
+    // Plays a path from the spawn point cell by cell, SOFT_DROP falling one row, and tells whether it ends on the spot
+    private boolean playsOutTo(int[] board, int type, TetrisInput[] path, int length, int rotation, int row, int col) {
+        int atRotation = 0;
+        int atRow = -1;
+        int atCol = 2;
+        for (int step = 0; step < length; step++) {
+            int nextRotation = atRotation;
+            int nextRow = atRow;
+            int nextCol = atCol;
+            switch (path[step]) {
+                case LEFT:
+                    nextCol--;
+                    break;
+                case RIGHT:
+                    nextCol++;
+                    break;
+                case ROTATE:
+                    nextRotation = TetrisShapes.nextRotation(atRotation);
+                    break;
+                case SOFT_DROP:
+                    nextRow++;
+                    break;
+                case HARD_DROP:
+                    if (step != length - 1) {
+                        return false;
+                    }
+                    while (fitsCells(board, type, atRotation, nextRow + 1, atCol)) {
+                        nextRow++;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+            if (!fitsCells(board, type, nextRotation, nextRow, nextCol)) {
+                return false;
+            }
+            atRotation = nextRotation;
+            atRow = nextRow;
+            atCol = nextCol;
+        }
+        return atRotation == rotation && atRow == row && atCol == col;
+    }
+
+    // Tests the brick cell by cell, on purpose nothing like the row masks the engine uses
+    private boolean fitsCells(int[] board, int type, int rotation, int row, int col) {
+        for (int cell = 0; cell < TetrisShapes.AMT_CELLS; cell++) {
+            int cellCol = col + TetrisShapes.getCellX(type, rotation, cell);
+            int cellRow = row + TetrisShapes.getCellY(type, rotation, cell);
+            if (cellCol < 0 || cellCol >= cols || cellRow >= board.length) {
+                return false;
+            }
+            if (cellRow >= 0 && (board[cellRow] >> cellCol & 1) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int key(int rotation, int row, int col) {
+        return rotation << 16 | (row + 128) << 8 | (col + 128);
+    }
+
+    // Any input, with three hard drops in four played as LEFT instead
+    private TetrisInput randomInput(SplittableRandom random) {
+        TetrisInput input = inputs[random.nextInt(inputs.length)];
+        return input == TetrisInput.HARD_DROP && random.nextInt(4) != 0 ? TetrisInput.LEFT : input;
+    }
+
+    // Everything a player could tell two games apart by
+    private long fingerprint(TetrisGame game) {
+        long fingerprint = game.getScore() * 31L + game.getLinesCleared() * 7L + game.getLevel() * 3L
+                + game.getPiecesPlaced() + game.getTicks() * 11L + (game.isGameOver() ? 1 : 0);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                fingerprint = fingerprint * 17 + game.getBoard().getColor(row, col);
+            }
+        }
+        for (int index = 0; index < 5; index++) {
+            fingerprint = fingerprint * 11 + game.getQueue(index);
+        }
+        TetrisBrick brick = game.getCurrentPlace();
+        return fingerprint * 5 + brick.getType() * 97 + brick.getOrientation() * 13 + brick.getRow() * 3
+                + brick.getCol();
+    }
+
+    private boolean selected(String name) {
+        return filter.equals("all") || name.contains(filter);
+    }
+
+    private void report(String name, int bad, String details) {
+        failures += bad;
+        System.out.printf("%-12s %s (%s)%n", name, bad == 0 ? "ok" : "FAILED " + bad, details);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filter = args.length > 0 ? args[0] : "all";
+        int failures = new TetrisSelfCheck(filter).runAll();
+        System.exit(failures > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,171 @@
+// Precomputed, immutable shape table for every brick type and rotation
+// Holds the cell offsets (relative to the brick's center cell) and the row masks used for collision tests
+// Shared by the collision, locking and drawing code so no brick type needs special casing
+
+import java.util.Arrays;
+
+public final class TetrisShapes {
+    public static final int EL = 0;
+    public static final int LONG = 1;
+    public static final int JAY = 2;
+    public static final int ESS = 3;
+    public static final int ZEE = 4;
+    public static final int STACK = 5;
+    public static final int SQUARE = 6;
+
+    public static final int AMT_TYPES = 7;
+    public static final int AMT_ROTATIONS = 4;
+    public static final int AMT_CELLS = 4;
+
+    // Board color codes start at 2, 0 is empty and 1 is the invisible border
+    private static final int firstColor = 2;
+
+    // Display color of every type, kept as text so the engine does not depend on AWT
+    private static final String[] COLOR_CODES = {
+            "#df8d53", // EL
+            "#d9677a", // LONG
+            "#67d96e", // JAY
+            "#d9c767", // ESS
+            "#67d5d9", // ZEE
+            "#d853df", // STACK
+            "#6184dd"  // SQUARE
+    };
+
+    // [type][rotation] -> {x0, y0, x1, y1, ...}, y grows downwards
+    private static final int[][][] CELLS = {
+            { // EL
+                    {0, 0, 1, 0, -1, 0, 1, -1},
+                    {0, 0, 0, -1, 0, 1, 1, 1},
+                    {0, 0, -1, 0, 1, 0, -1, 1},
+                    {0, 0, 0, 1, 0, -1, -1, -1}
+            },
+            { // LONG
+                    {0, 0, -1, 0, 1, 0, 2, 0},
+                    {0, 0, 0, -1, 0, 1, 0, 2},
+                    {0, 0, -1, 0, 1, 0, 2, 0},
+                    {0, 0, 0, -1, 0, 1, 0, 2}
+            },
+            { // JAY
+                    {0, 0, -1, 0, 1, 0, 1, 1},
+                    {0, 0, 0, -1, 0, 1, -1, 1},
+                    {0, 0, 1, 0, -1, 0, -1, -1},
+                    {0, 0, 0, -1, 0, 1, 1, -1}
+            },
+            { // ESS
+                    {0, 0, -1, 0, 0, -1, 1, -1},
+                    {0, 0, 0, -1, 1, 0, 1, 1},
+                    {0, 0, -1, 0, 0, -1, 1, -1},
+                    {0, 0, 0, -1, 1, 0, 1, 1}
+            },
+            { // ZEE
+                    {0, 0, 1, 0, 0, -1, -1, -1},
+                    {0, 0, 1, -1, 1, 0, 0, 1},
+                    {0, 0, 1, 0, 0, -1, -1, -1},
+                    {0, 0, 1, -1, 1, 0, 0, 1}
+            },
+            { // STACK
+                    {0, 0, -1, 0, 1, 0, 0, -1},
+                    {0, 0, 0, -1, 0, 1, 1, 0},
+                    {0, 0, 1, 0, -1, 0, 0, 1},
+                    {0, 0, 0, -1, 0, 1, -1, 0}
+            },
+            { // SQUARE
+                    {0, 0, 1, 0, 1, -1, 0, -1},
+                    {0, 0, 1, 0, 1, -1, 0, -1},
+                    {0, 0, 1, 0, 1, -1, 0, -1},
+                    {0, 0, 1, 0, 1, -1, 0, -1}
+            }
+    };
+
+    // Bounding box of every rotation, relative to the center cell
+    private static final int[][] MIN_X = new int[AMT_TYPES][AMT_ROTATIONS];
+    private static final int[][] MIN_Y = new int[AMT_TYPES][AMT_ROTATIONS];
+    private static final int[][] WIDTH = new int[AMT_TYPES][AMT_ROTATIONS];
+    private static final int[][] HEIGHT = new int[AMT_TYPES][AMT_ROTATIONS];
+
+    // [type][rotation][row of bounding box] -> occupied columns, bit 0 is the leftmost column of the box
+    private static final int[][][] ROW_MASKS = new int[AMT_TYPES][AMT_ROTATIONS][];
+
+    // [type][rotation][column of bounding box] -> lowest cell of that column, relative to the center cell
+    private static final int[][][] BOTTOMS = new int[AMT_TYPES][AMT_ROTATIONS][];
+
+    static {
+        for (int type = 0; type < AMT_TYPES; type++) {
+            for (int rotation = 0; rotation < AMT_ROTATIONS; rotation++) {
+                int[] cells = CELLS[type][rotation];
+                int minX = Integer.MAX_VALUE;
+                int minY = Integer.MAX_VALUE;
+                int maxX = Integer.MIN_VALUE;
+                int maxY = Integer.MIN_VALUE;
+                for (int cell = 0; cell < AMT_CELLS; cell++) {
+                    minX = Math.min(minX, cells[cell * 2]);
+                    maxX = Math.max(maxX, cells[cell * 2]);
+                    minY = Math.min(minY, cells[cell * 2 + 1]);
+                    maxY = Math.max(maxY, cells[cell * 2 + 1]);
+                }
+                int[] masks = new int[maxY - minY + 1];
+                int[] bottoms = new int[maxX - minX + 1];
+                Arrays.fill(bottoms, Integer.MIN_VALUE);
+                for (int cell = 0; cell < AMT_CELLS; cell++) {
+                    int boxCol = cells[cell * 2] - minX;
+                    masks[cells[cell * 2 + 1] - minY] |= 1 << boxCol;
+                    bottoms[boxCol] = Math.max(bottoms[boxCol], cells[cell * 2 + 1]);
+                }
+                MIN_X[type][rotation] = minX;
+                MIN_Y[type][rotation] = minY;
+                WIDTH[type][rotation] = maxX - minX + 1;
+                HEIGHT[type][rotation] = maxY - minY + 1;
+                ROW_MASKS[type][rotation] = masks;
+                BOTTOMS[type][rotation] = bottoms;
+            }
+        }
+    }
+
+    private TetrisShapes() {
+    }
+
+    public static int getCellX(int type, int rotation, int cell) {
+        return CELLS[type][rotation][cell * 2];
+    }
+
+    public static int getCellY(int type, int rotation, int cell) {
+        return CELLS[type][rotation][cell * 2 + 1];
+    }
+
+    public static int getMinX(int type, int rotation) {
+        return MIN_X[type][rotation];
+    }
+
+    public static int getMinY(int type, int rotation) {
+        return MIN_Y[type][rotation];
+    }
+
+    public static int getWidth(int type, int rotation) {
+        return WIDTH[type][rotation];
+    }
+
+    public static int getHeight(int type, int rotation) {
+        return HEIGHT[type][rotation];
+    }
+
+    public static int getRowMask(int type, int rotation, int boxRow) {
+        return ROW_MASKS[type][rotation][boxRow];
+    }
+
+    public static int getBottom(int type, int rotation, int boxCol) {
+        return BOTTOMS[type][rotation][boxCol];
+    }
+
+    public static int nextRotation(int rotation) {
+        return (rotation + 1) % AMT_ROTATIONS;
+    }
+
+    // Color code written into the board when a brick of this type locks
+    public static int getBoardColor(int type) {
+        return type + firstColor;
+    }
+
+    public static String getColorCode(int type) {
+        return COLOR_CODES[type];
+    }
+}
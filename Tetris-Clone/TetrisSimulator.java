@@ -0,0 +1,165 @@
+// Plays large batches of headless games across every core and reports throughput and score statistics
+// Each game is seeded from the batch seed and its index, so a batch plays out the same on every machine
+//
+// Usage: java TetrisSimulator [games] [seed] [threads] [policy] [maxTicks] [randomizer]
+//   policy is "random", "bot" (TetrisBot places each brick by itself), "lookahead" (TetrisBot plans through the
+//   previewed bricks, which depends on the machine's speed) or a comma separated list of TetrisInput names that is repeated, e.g. ROTATE,LEFT,HARD_DROP
+//   randomizer is one of the names TetrisRandomizer.create() accepts, 7bag by default
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class TetrisSimulator {
+    private final int rows = 20;
+    private final int cols = 10;
+
+    // Random play holds back on hard drops so games last long enough to be interesting
+    private final int hardDropOdds = 40;
+
+    private final long seed;
+    private final int maxTicks;
+    private final TetrisInput[] script;
+    private final boolean bot;
+    private final boolean lookAhead;
+
+    // Time the look-ahead bot may spend planning each brick
+    private final long lookAheadNanos = 5_000_000L;
+    private final String randomizer;
+
+    public TetrisSimulator(long seed, String policy, int maxTicks, String randomizer) {
+        this.seed = seed;
+        this.maxTicks = maxTicks;
+        this.randomizer = randomizer;
+        this.lookAhead = policy.equals("lookahead");
+        this.bot = policy.equals("bot") || lookAhead;
+        if (policy.equals("random") || bot) {
+            script = null;
+        } else {
+            String[] names = policy.split(",");
+            script = new TetrisInput[names.length];
+            for (int index = 0; index < names.length; index++) {
+                script[index] = TetrisInput.valueOf(names[index].trim());
+            }
+        }
+    }
+
+    // Result of one finished game
+    public static class GameResult {
+        public final int score;
+        public final int lines;
+        public final int pieces;
+        public final int ticks;
+        public final int level;
+
+        public GameResult(int score, int lines, int pieces, int ticks, int level) {
+            this.score = score;
+            this.lines = lines;
+            this.pieces = pieces;
+            this.ticks = ticks;
+            this.level = level;
+        }
+    }
+
+    // Seed of a single game, derived from the batch seed so games do not depend on scheduling
+    public long gameSeed(int gameIndex) {
+        return new SplittableRandom(seed + gameIndex).nextLong();
+    }
+
+    public GameResult playGame(int gameIndex) {
+        long gameSeed = gameSeed(gameIndex);
+        TetrisGame game = new TetrisGame(rows, cols, TetrisRandomizer.create(randomizer, gameSeed));
+        SplittableRandom inputRand = new SplittableRandom(~gameSeed);
+        TetrisInput[] inputs = TetrisInput.values();
+        TetrisBot player = null;
+        if (lookAhead) {
+            player = new TetrisBot(game, lookAheadNanos, ForkJoinPool.commonPool());
+        } else if (bot) {
+            player = new TetrisBot(game);
+        }
+
+        game.startGame();
+        int ticks = 0;
+        while (!game.isGameOver() && ticks < maxTicks) {
+            TetrisInput input;
+            if (player != null) {
+                input = player.nextInput();
+            } else if (script != null) {
+                input = script[ticks % script.length];
+            } else {
+                input = inputs[inputRand.nextInt(inputs.length)];
+                if (input == TetrisInput.HARD_DROP && inputRand.nextInt(hardDropOdds) != 0) {
+                    input = TetrisInput.NONE;
+                }
+            }
+            game.step(input);
+            ticks++;
+        }
+        return new GameResult(game.getScore(), game.getLinesCleared(), game.getPiecesPlaced(), ticks, game.getLevel());
+    }
+
+    // Plays every game on the given amount of threads, results come back in game order
+    public GameResult[] playBatch(int games, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> IntStream.range(0, games).parallel()
+                    .mapToObj(this::playGame)
+                    .toArray(GameResult[]::new)).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1L;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        String policy = args.length > 3 ? args[3] : "random";
+        int maxTicks = args.length > 4 ? Integer.parseInt(args[4]) : 1000000;
+        String randomizer = args.length > 5 ? args[5] : "7bag";
+
+        TetrisSimulator simulator = new TetrisSimulator(seed, policy, maxTicks, randomizer);
+
+        long start = System.nanoTime();
+        GameResult[] results = simulator.playBatch(games, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long pieces = 0;
+        long ticks = 0;
+        int[] scores = new int[games];
+        int[] lines = new int[games];
+        int[] levels = new int[games];
+        for (int index = 0; index < games; index++) {
+            pieces += results[index].pieces;
+            ticks += results[index].ticks;
+            scores[index] = results[index].score;
+            lines[index] = results[index].lines;
+            levels[index] = results[index].level;
+        }
+
+        System.out.println("Games: " + games + " on " + threads + " threads, seed " + seed + ", policy " + policy
+                + ", randomizer " + randomizer);
+        System.out.printf("Time: %.3f s, %.1f games/s, %.1f pieces/s, %.1f ticks/s%n",
+                seconds, games / seconds, pieces / seconds, ticks / seconds);
+        printDistribution("Score", scores);
+        printDistribution("Lines", lines);
+        printDistribution("Level", levels);
+    }
+
+    private static void printDistribution(String name, int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (int value : sorted) {
+            total += value;
+        }
+        System.out.printf("%s: min %d, p10 %d, median %d, p90 %d, max %d, mean %.2f%n", name,
+                sorted[0], percentile(sorted, 10), percentile(sorted, 50), percentile(sorted, 90),
+                sorted[sorted.length - 1], (double) total / sorted.length);
+    }
+
+    private static int percentile(int[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
@@ -0,0 +1,74 @@
+// Fixed-size table of search results keyed by a 64-bit hash, shared by every search thread without locks
+// Each entry is written as three plain words: the score, a word holding the entry's generation and depth,
+// and a check word that is the key XORed with both. A reader only trusts an entry whose check word matches
+// the key it is looking for, so an entry torn by two threads writing the same slot at once fails the check
+// and just counts as missing
+//
+// When a slot is taken, entries from earlier searches are replaced first, then shallower ones
+
+import java.util.Arrays;
+
+public class TetrisTranspositionTable {
+    private final int mask;
+    private final long[] checks;
+    private final long[] scores;
+    private final long[] infos;
+
+    // Bumped by every new search, so entries left from older ones give way first
+    private int generation = 1;
+
+    // Holds 2 ^ sizeBits entries
+    public TetrisTranspositionTable(int sizeBits) {
+        if (sizeBits < 1 || sizeBits > 30) {
+            throw new IllegalArgumentException("Table size must be between 2 ^ 1 and 2 ^ 30 entries");
+        }
+        int size = 1 << sizeBits;
+        this.mask = size - 1;
+        this.checks = new long[size];
+        this.scores = new long[size];
+        this.infos = new long[size];
+    }
+
+    public void nextGeneration() {
+        generation++;
+    }
+
+    // Score stored for the key at exactly the given depth, NaN when there is none
+    public double get(long key, int depth) {
+        int slot = (int) key & mask;
+        long score = scores[slot];
+        long info = infos[slot];
+        if ((checks[slot] ^ score ^ info) != key || depthOf(info) != depth) {
+            return Double.NaN;
+        }
+        return Double.longBitsToDouble(score);
+    }
+
+    // Stores a score, keeping the slot's entry instead if it is from this search and searched deeper
+    public void put(long key, int depth, double score) {
+        int slot = (int) key & mask;
+        long info = infos[slot];
+        if (generationOf(info) == generation && depthOf(info) > depth) {
+            return;
+        }
+        long newInfo = (long) generation << 8 | depth;
+        long newScore = Double.doubleToRawLongBits(score);
+        scores[slot] = newScore;
+        infos[slot] = newInfo;
+        checks[slot] = key ^ newScore ^ newInfo;
+    }
+
+    public void clear() {
+        Arrays.fill(checks, 0);
+        Arrays.fill(scores, 0);
+        Arrays.fill(infos, 0);
+    }
+
+    private static int depthOf(long info) {
+        return (int) info & 0xff;
+    }
+
+    private static int generationOf(long info) {
+        return (int) (info >>> 8);
+    }
+}
@@ -8,14 +8,26 @@
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Scanner;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 public class TetrisWindow extends JFrame {
     private static TetrisGame game;
     private static TetrisDisplay display;
     public static boolean loadedGame;
+    public static int loadedSlot = -1;
+    public static TetrisSaveStore saveStore;
+    public static TetrisHighScores highScores;
+
+    // Every file is read and written on this service's thread, never on the Swing thread
+    public static final TetrisPersistence persistence = new TetrisPersistence();
+    public static TetrisReplay watchedReplay;
+    public static boolean watchedBot;
+
+    // Set by starting with --latency, a played game then prints how long key presses waited when the program exits
+    public static boolean reportLatency;
 
     private int winWid = 960;
     private int winHei = 540;
@@ -23,9 +35,13 @@ public class TetrisWindow extends JFrame {
     int rows = 20;
     int cols = 10;
 
-    private final String scoresFile = "highscores.txt";
 
     public TetrisWindow(TetrisGame game, TetrisDisplay display) {
+        persistence.start();
+        saveStore = persistence.read(() -> TetrisSaveStore.open(Paths.get(TetrisSaveStore.STORE_FILE),
+                TetrisSaveStore.DEFAULT_SLOTS)).exceptionally(e -> null).join();
+        highScores = persistence.read(() -> TetrisHighScores.open(Paths.get(TetrisHighScores.SCORES_FILE),
+                TetrisHighScores.TOP_SCORES)).exceptionally(e -> null).join();
         newGame();
         this.setTitle("Tetris Assignment");
         this.setSize(winWid, winHei);
@@ -33,7 +49,11 @@ public class TetrisWindow extends JFrame {
         this.setLocationRelativeTo(null);
         this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
-        game = new TetrisGame(rows, cols);
+        if (watchedReplay != null) {
+            game = watchedReplay.newGame();
+        } else {
+            game = new TetrisGame(rows, cols);
+        }
         display = new TetrisDisplay(game);
         this.add(display);
 
@@ -44,14 +64,44 @@ public class TetrisWindow extends JFrame {
         newGame();
     }
 
+    // Lets the player pick one of the named saves, or the last game saved with Save & Quit
     public void retrieveGame() {
         loadedGame = true;
+        if (saveStore == null) {
+            return;
+        }
+        ArrayList<String> choices = persistence.read(saveStore::getNames).join();
+        if (choices.isEmpty()) {
+            return;
+        }
+        String lastSave = "Last save & quit";
+        choices.add(0, lastSave);
+        Object choice = JOptionPane.showInputDialog(null, "Pick a saved game", "Load Game", 3, null,
+                choices.toArray(), lastSave);
+        if (choice == null) {
+            loadedGame = false;
+            newGame();
+        } else if (!lastSave.equals(choice)) {
+            String name = (String) choice;
+            loadedSlot = persistence.read(() -> saveStore.find(name)).join();
+        }
+    }
+
+    // Loads the replay of the last game played, the display plays it instead of taking keys
+    public void retrieveReplay() {
+        watchedReplay = persistence.read(() -> TetrisReplay.load(new File(TetrisReplay.LAST_REPLAY_FILE)))
+                .exceptionally(e -> null).join();
+        if (watchedReplay == null) {
+            JOptionPane.showMessageDialog(null, "Error, could not read the last replay\n make sure it is spelled " +
+                    "exactly:\n" + TetrisReplay.LAST_REPLAY_FILE, "File Error", 2);
+            newGame();
+        }
     }
 
     public void newGame() {
         int fontSize = 22;
         String width = "200px";
-        String[] userChoices = {"New Game", "Load Game", "High Scores", "Quit"};
+        String[] userChoices = {"New Game", "Load Game", "Watch Replay", "Watch Bot", "High Scores", "Quit"};
         JLabel mainMenuPrompt = new JLabel("<html><body><div><align='center'>Welcome to Tetris!<br>please select an option</div></body></html>");
         mainMenuPrompt.setFont(new Font("Serif", Font.BOLD, fontSize));
         ImageIcon icon = new ImageIcon("tetris image.png");
@@ -66,6 +116,12 @@ public class TetrisWindow extends JFrame {
                 retrieveGame();
                 break;
             case 2:
+                retrieveReplay();
+                break;
+            case 3:
+                watchedBot = true;
+                break;
+            case 4:
                 readLeaderboard();
                 newGame();
                 break;
@@ -76,48 +132,26 @@ public class TetrisWindow extends JFrame {
     }
 
     public void readLeaderboard() {
-        File myFile = new File(scoresFile);
-
-        ArrayList<String> scores = new ArrayList<String>();
-
-        if (!myFile.exists()) {
-            JOptionPane.showMessageDialog(null, "Error, File not found\n make sure it is spelled " +
-                    "exactly:\nhighscores.txt", "File Error", 2);
+        if (highScores == null) {
+            JOptionPane.showMessageDialog(null, "Error, the leader board could not be opened\n make sure " +
+                    TetrisHighScores.SCORES_FILE + " is not in use", "File Error", 2);
+            newGame();
+            return;
         }
-
-        try {
-            Scanner scoreScanner = new Scanner(myFile);
-            scoreScanner.useDelimiter("\n");
-
-            while (scoreScanner.hasNext()) {
-                String nextScore = scoreScanner.next();
-                scores.add(nextScore);
-            }
-            scoreScanner.close();
-        } catch (IOException ioe) {
-            JOptionPane.showMessageDialog(null, "Error, File not found\n make sure it is spelled " +
-                    "exactly:\nhighscores.txt", "File Error", 2);
-        }
-
-        Collections.sort(scores, Collections.reverseOrder());
-        displayLeaderboard(scores);
+        // The best scores are kept in memory, showing them does not touch the file
+        displayLeaderboard(highScores.getTop());
     }
 
-    public void displayLeaderboard(ArrayList<String> score) {
+    public void displayLeaderboard(List<TetrisHighScores.Entry> score) {
         int fontSize = 12;
         ImageIcon icon = new ImageIcon("tetris image.png");
         String[] userChoices = {"Back", "Quit", "Reset"};
 
-        String leaderMessage = "";
+        StringBuilder leaderMessage = new StringBuilder();
 
-        // Retrieves all score data and formats it correctly
-        for (int arrayCount = 0; arrayCount < score.size(); arrayCount++) {
-            if (arrayCount < 10) {
-                StringBuilder stringBuild = new StringBuilder(score.get(arrayCount));
-                int colanIndex = stringBuild.indexOf(":", 0);
-                stringBuild.replace(colanIndex, colanIndex + 1, "<BR>");
-                leaderMessage += stringBuild.toString() + "<BR><BR>";
-            }
+        // Formats the best scores, best first
+        for (TetrisHighScores.Entry entry : score) {
+            leaderMessage.append(entry.score).append("<BR>").append(entry.name).append("<BR><BR>");
         }
 
         // Displays formatted data
@@ -143,16 +177,15 @@ public class TetrisWindow extends JFrame {
 
     public void resetLeaderboard() {
         try {
-            File myFile = new File(scoresFile);
-            Writer myWriter = new BufferedWriter(new FileWriter(myFile, false));
-            myWriter.write("");
-        } catch (IOException e1) {
-            JOptionPane.showMessageDialog(null, "Error, File not found\n make sure it is spelled " +
-                    "exactly:\nhighscores.txt", "File Error", 2);
+            persistence.write(null, highScores::reset).join();
+        } catch (CompletionException e1) {
+            JOptionPane.showMessageDialog(null, "Error, the leader board could not be reset\n" + e1.getCause().getMessage(),
+                    "File Error", 2);
         }
     }
 
     public static void main(String[] args) {
+        reportLatency = args.length > 0 && args[0].equals("--latency");
         new TetrisWindow(game, display);
     }
 }
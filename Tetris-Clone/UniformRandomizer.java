@@ -0,0 +1,19 @@
+// Picks every brick type with the same chance each time, like the game originally did
+
+public class UniformRandomizer extends TetrisRandomizer {
+
+    public UniformRandomizer(long seed) {
+        super(seed);
+    }
+
+    protected int pick() {
+        return random.nextInt(TetrisShapes.AMT_TYPES);
+    }
+
+    protected void restart() {
+    }
+
+    public String getName() {
+        return "uniform";
+    }
+}